@@ -0,0 +1,74 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * This benchmark measures how ConcurrentGrid scales with the number of
+ * threads playing one shared board. Each invocation resets the board 
+ * and has `threads` threads share MOVES moves (uncovers, with one flag
+ * in ten) at random locations, so the score is the time per move and 
+ * should fall as threads are added until they start to contend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentGridBenchmark {
+    private static final int MOVES = 1 << 16;
+    
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    public int threads;
+    
+    @Param({"1024"})
+    public int size;
+    
+    private ConcurrentGrid grid;
+    private ExecutorService pool;
+    private List<Callable<Integer>> players;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+		grid = new ConcurrentGrid(size, size, size * size / 5, new Random(1));
+		pool = Executors.newFixedThreadPool(threads);
+		players = new ArrayList<>();
+		for(int t = 0; t < threads; t++) {
+			final Random random = new Random(t);
+			players.add(new Callable<Integer>() {
+				public Integer call() {
+					int uncovered = 0;
+					for(int move = 0; move < MOVES / threads; move++) {
+						int row = random.nextInt(size);
+						int col = random.nextInt(size);
+						if(random.nextInt(10) == 0) grid.placeFlagAt(row, col);
+						else uncovered += grid.uncoverAt(row, col);
+					}
+					return uncovered;
+				}
+			});
+		}
+    }
+    
+    @Setup(Level.Invocation)
+    public void resetGrid() {
+		grid.reset();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+		pool.shutdown();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int play() throws Exception {
+		int uncovered = 0;
+		for(Future<Integer> future : pool.invokeAll(players)) {
+			uncovered += future.get();
+		}
+        return uncovered;
+    }
+}
@@ -0,0 +1,169 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * These benchmarks measure the hot paths of Grid on square boards of
+ * several sizes and mine densities:
+ *
+ *     construct      new Grid (allocation, mines, and hints)
+ *     reset          clearing, placing mines, and placing hints
+ *     resetLazy      clearing only (a safeFirstClick grid)
+ *     placeMines     placing the mines on a cleared grid, without 
+ *                    their hints
+ *     placeHints     placing the hints of the mines on a grid 
+ *                    whose mines were just placed (serial on small
+ *                    grids, parallel on large ones, as in Grid)
+ *     uncoverCascade one uncoverAt from a location with a hint of 0,
+ *                    whose cascade size depends on the density
+ *     getResult      the game result check
+ *
+ * Only placeMines, placeHints, and uncoverCascade need their grid put
+ * back before every call, so they take their grids from state classes
+ * of their own with invocation-level setup, which the other benchmarks
+ * do not pay for.
+ *
+ * Run them with `gradle jmh`, which writes the results as JSON to
+ * build/reports/jmh/results.json.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+    @Param({"64", "512", "2048"})
+    public int size;
+    
+    @Param({"0.01", "0.10", "0.20"})
+    public double density;
+    
+    private int mines;
+    private Random random;
+    private Grid grid;
+    private Grid lazy;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+		mines = (int)(size * size * density);
+		random = new Random(1);
+		grid = new Grid(size, size, mines, random);
+		lazy = new Grid(size, size, mines, new Random(1), true);
+    }
+    
+    /**
+     * This class holds a safeFirstClick grid that is cleared before 
+     * every placeMines.
+     */
+    @State(Scope.Thread)
+    public static class Cleared {
+        Grid grid;
+        
+        @Setup(Level.Trial)
+        public void setUp(GridBenchmark benchmark) {
+			grid = new Grid(benchmark.size, benchmark.size, benchmark.mines, new Random(1), true);
+        }
+        
+        @Setup(Level.Invocation)
+        public void clear() {
+			grid.reset();
+        }
+    }
+    
+    /**
+     * This class holds a safeFirstClick grid that is cleared and given
+     * its mines, but no hints, before every placeHints.
+     */
+    @State(Scope.Thread)
+    public static class Mined {
+        Grid grid;
+        
+        @Setup(Level.Trial)
+        public void setUp(GridBenchmark benchmark) {
+			grid = new Grid(benchmark.size, benchmark.size, benchmark.mines, new Random(1), true);
+        }
+        
+        @Setup(Level.Invocation)
+        public void mine() {
+			grid.reset();
+			grid.generatePhase(false);
+        }
+    }
+    
+    /**
+     * This class holds a grid that is put back to the same covered 
+     * board before every uncoverCascade, with the first location that
+     * has a hint of 0 to uncover.
+     */
+    @State(Scope.Thread)
+    public static class Cascade {
+        Random random;
+        Grid grid;
+        int zeroRow;
+        int zeroCol;
+        
+        @Setup(Level.Trial)
+        public void setUp(GridBenchmark benchmark) {
+			random = new Random(1);
+			grid = new Grid(benchmark.size, benchmark.size, benchmark.mines, random);
+        }
+        
+        @Setup(Level.Invocation)
+        public void cover() {
+			random.setSeed(1);
+			grid.reset();
+			int size = grid.getWidth();
+			for(int index = 0; index < size * size; index++) {
+				Location loc = grid.getLocation(index / size, index % size);
+				if(!loc.hasMine() && loc.getHint() == 0) {
+					zeroRow = index / size;
+					zeroCol = index % size;
+					return;
+				}
+			}
+        }
+    }
+    
+    @Benchmark
+    public Grid construct() {
+        return new Grid(size, size, mines, random);
+    }
+    
+    @Benchmark
+    public Grid reset() {
+		grid.reset();
+        return grid;
+    }
+    
+    @Benchmark
+    public Grid resetLazy() {
+		lazy.reset();
+        return lazy;
+    }
+    
+    @Benchmark
+    public Grid placeMines(Cleared cleared) {
+		cleared.grid.generatePhase(false);
+        return cleared.grid;
+    }
+    
+    @Benchmark
+    public Grid placeHints(Mined mined) {
+		mined.grid.generatePhase(true);
+        return mined.grid;
+    }
+    
+    @Benchmark
+    public Grid uncoverCascade(Cascade cascade) {
+		cascade.grid.uncoverAt(cascade.zeroRow, cascade.zeroCol);
+        return cascade.grid;
+    }
+    
+    @Benchmark
+    public Grid.Result getResult() {
+        return grid.getResult();
+    }
+}
@@ -0,0 +1,44 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * These benchmarks measure the churn of short games on an expert 
+ * board (30x16 with 99 mines), each started and given its first 
+ * uncover:
+ *
+ *     newGrid    a new Grid and Random for every game
+ *     pooledGrid a grid taken from a GridPool and given back
+ *
+ * Run them with `gradle jmh -PjmhInclude=GridPoolBenchmark`, and add
+ * JMH's GC profiler (-prof gc) to compare their allocation rates; a 
+ * warm pool allocates nothing per game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridPoolBenchmark {
+    private final GridPool pool = new GridPool();
+    private long seed;
+    
+    @Benchmark
+    public Grid.Result newGrid() {
+		Grid grid = new Grid(30, 16, 99, new Random(seed++), true);
+		grid.uncoverAt(8, 15);
+		return grid.getResult();
+    }
+    
+    @Benchmark
+    public Grid.Result pooledGrid() {
+		Grid grid = pool.acquire(30, 16, 99, seed++, true);
+		grid.uncoverAt(8, 15);
+		Grid.Result result = grid.getResult();
+		pool.release(grid);
+		return result;
+    }
+}
@@ -0,0 +1,80 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This benchmark measures how much a cascading uncoverAt costs with 
+ * each of the ways of watching a Grid registered: nothing, a typed 
+ * GridListener, a batched CellChangeListener, and an Observer that 
+ * receives row:col:info strings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationBenchmark {
+    @Param({"128", "1024"})
+    public int size;
+    
+    @Param({"none", "listener", "batch", "observer"})
+    public String channel;
+    
+    private Random random;
+    private Grid grid;
+    private int zeroRow;
+    private int zeroCol;
+    
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+		random = new Random(1);
+		grid = new Grid(size, size, size * size / 20, random);
+		if(channel.equals("listener")) {
+			grid.addGridListener(new GridListener() {
+				public void onReveal(int row, int col, int hint) { blackhole.consume(hint); }
+				public void onMine(int row, int col) { blackhole.consume(row); }
+				public void onFlag(int row, int col) { blackhole.consume(row); }
+				public void onUnflag(int row, int col) { blackhole.consume(row); }
+			});
+		}
+		else if(channel.equals("batch")) {
+			grid.addChangeListener(new CellChangeListener() {
+				public void cellsChanged(Grid g, CellChanges changes) {
+					for(int i = 0; i < changes.size(); i++) {
+						blackhole.consume(changes.getInfo(i));
+					}
+				}
+				public void gridReset(Grid g) {}
+			});
+		}
+		else if(channel.equals("observer")) {
+			grid.addObserver(new Observer() {
+				public void update(Observable o, Object arg) { blackhole.consume(arg); }
+			});
+		}
+    }
+    
+    @Setup(Level.Invocation)
+    public void setUpCascade() {
+		random.setSeed(1);
+		grid.reset();
+		for(int index = 0; index < size * size; index++) {
+			Location loc = grid.getLocation(index / size, index % size);
+			if(!loc.hasMine() && loc.getHint() == 0) {
+				zeroRow = index / size;
+				zeroCol = index % size;
+				return;
+			}
+		}
+    }
+    
+    @Benchmark
+    public Grid uncoverCascade() {
+		grid.uncoverAt(zeroRow, zeroCol);
+        return grid;
+    }
+}
@@ -0,0 +1,428 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class holds the state of a board as three bitsets, one bit per
+ * location, for the mines, the uncovered locations, and the flags, so
+ * that questions about the whole board are answered 64 locations per
+ * operation instead of one Location at a time.
+ *
+ * Each row starts on a new long (row r, column c is bit c % 64 of
+ * word r * getWordsPerRow() + c / 64), and the bits past the last
+ * column of a row are always 0. Neighbors to the left and right are
+ * reached by shifting words one bit, carrying the edge bit over from
+ * the next word of the row, and neighbors above and below by moving a
+ * whole row of words. The 8 neighbors of every location in a word are
+ * counted at once by a bit-sliced adder, which keeps the count as four
+ * words of bit planes (bit i of plane p is bit p of the count for
+ * location i), so neighbor counts, hints, frontiers, cascades, and the
+ * result of the game are all computed a word at a time.
+ *
+ * A Bitboard is an optional layer over a Board, which keeps only its
+ * bytes: Grid.getBitboard copies the grid into a new one when asked,
+ * and later changes to the grid are not seen. The sets returned by the
+ * methods below are new arrays in the same layout, and can be combined
+ * with plain bitwise operations. The queries keep no state of their 
+ * own, so any number of threads can run them at once, as long as 
+ * nothing changes the bitsets meanwhile. This is written for Java 8, 
+ * which has no Vector API; the word loops are simple enough for the 
+ * JIT compiler to unroll.
+ */
+public class Bitboard {
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long lastMask;
+    private final long[] mines;
+    private final long[] uncovered;
+    private final long[] flagged;
+
+    /**
+     * This constructor creates a board of the specified size with no
+     * mines, no flags, and every location covered.
+     *
+     * @param width the width of the board (number of columns)
+     * @param height the height of the board (number of rows)
+     */
+    public Bitboard(int width, int height) {
+		if(width < 1 || height < 1 || (long)((width + 63) >>> 6) * height > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Illegal board size " + width + "x" + height);
+		}
+		this.width = width;
+		this.height = height;
+		this.wordsPerRow = (width + 63) >>> 6;
+		this.lastMask = ((width & 63) == 0) ? -1L : (1L << (width & 63)) - 1;
+		this.mines = new long[wordsPerRow * height];
+		this.uncovered = new long[mines.length];
+		this.flagged = new long[mines.length];
+    }
+
+    /**
+     * This method copies a board into a new Bitboard, one word of each
+     * bitset at a time.
+     *
+     * @param board the board to copy
+     * @return the bitboard
+     */
+    static Bitboard of(Board board) {
+		Bitboard bits = new Bitboard(board.getWidth(), board.getHeight());
+		int index = 0;
+		for(int row = 0; row < bits.height; row++) {
+			for(int j = 0; j < bits.wordsPerRow; j++) {
+				int end = Math.min((j + 1) << 6, bits.width);
+				long mine = 0, open = 0, flag = 0;
+				for(int col = j << 6; col < end; col++, index++) {
+					long bit = 1L << col;
+					if(board.hasMine(index)) mine |= bit;
+					int type = board.typeBits(index);
+					if(type == Board.UNCOVERED) open |= bit;
+					else if(type == Board.FLAGGED) flag |= bit;
+				}
+				int k = row * bits.wordsPerRow + j;
+				bits.mines[k] = mine;
+				bits.uncovered[k] = open;
+				bits.flagged[k] = flag;
+			}
+		}
+		return bits;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * These methods return the bitsets themselves, not copies, so that
+     * callers can scan and combine them without allocating.
+     */
+    public long[] getMines() {
+        return mines;
+    }
+
+    public long[] getUncovered() {
+        return uncovered;
+    }
+
+    public long[] getFlagged() {
+        return flagged;
+    }
+
+    private int word(int row, int col) {
+		if(row < 0 || row >= height || col < 0 || col >= width) {
+			throw new IndexOutOfBoundsException("(" + row + ", " + col + ")");
+		}
+        return row * wordsPerRow + (col >>> 6);
+    }
+
+    /**
+     * This method returns whether a location is in a set.
+     *
+     * @param set a set in the layout of this board
+     * @param row
+     * @param col
+     * @return whether (row, col) is in the set
+     */
+    public boolean contains(long[] set, int row, int col) {
+        return (set[word(row, col)] & (1L << col)) != 0;
+    }
+
+    /**
+     * This method adds a location to a set, or removes it.
+     *
+     * @param set a set in the layout of this board
+     * @param row
+     * @param col
+     * @param value whether (row, col) should be in the set
+     */
+    public void set(long[] set, int row, int col, boolean value) {
+		int word = word(row, col);
+		if(value) set[word] |= 1L << col;
+		else set[word] &= ~(1L << col);
+    }
+
+    /**
+     * This method returns the number of locations in a set.
+     *
+     * @param set a set in the layout of this board
+     * @return the number of locations
+     */
+    public static int count(long[] set) {
+		int count = 0;
+		for(long word : set) count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * This method returns the locations that are covered and have no
+     * flag.
+     *
+     * @return the set of those locations
+     */
+    public long[] covered() {
+		long[] result = new long[uncovered.length];
+		for(int k = 0; k < result.length; k++) result[k] = ~uncovered[k] & ~flagged[k] & mask(k % wordsPerRow);
+        return result;
+    }
+
+    /**
+     * This method returns the locations of the board that are safe and
+     * whose hint (number of mines around them) is `hint`.
+     *
+     * @param hint the hint, in [0, 8]
+     * @return the set of those locations
+     * @throws IllegalArgumentException if the hint is not in [0, 8]
+     */
+    public long[] withHint(int hint) {
+		long[] result = withNeighborCount(mines, hint);
+		for(int k = 0; k < result.length; k++) result[k] &= ~mines[k];
+        return result;
+    }
+
+    /**
+     * This method returns the locations with exactly `count` neighbors
+     * in a set.
+     *
+     * @param set a set in the layout of this board
+     * @param count the number of neighbors, in [0, 8]
+     * @return the set of those locations
+     * @throws IllegalArgumentException if the count is not in [0, 8]
+     */
+    public long[] withNeighborCount(long[] set, int count) {
+		if(count < 0 || count > 8) throw new IllegalArgumentException("Illegal neighbor count " + count);
+		long[] result = new long[set.length];
+		for(int row = 0; row < height; row++) {
+			for(int j = 0; j < wordsPerRow; j++) {
+				result[row * wordsPerRow + j] = matchNeighbors(set, row, j, count) & mask(j);
+			}
+		}
+        return result;
+    }
+
+    /**
+     * This method returns the locations with at least one neighbor in a
+     * set (not counting themselves).
+     *
+     * @param set a set in the layout of this board
+     * @return the set of those locations
+     */
+    public long[] neighborsOf(long[] set) {
+		long[] result = new long[set.length];
+		for(int row = 0; row < height; row++) {
+			for(int j = 0; j < wordsPerRow; j++) {
+				result[row * wordsPerRow + j] = (spread(set, row - 1, j, true) | spread(set, row, j, false) | spread(set, row + 1, j, true)) & mask(j);
+			}
+		}
+        return result;
+    }
+
+    /**
+     * This method returns the frontier: the covered locations without
+     * a flag that are next to an uncovered safe location, which are
+     * the ones a solver has to reason about.
+     *
+     * @return the set of frontier locations
+     */
+    public long[] frontier() {
+		long[] safe = new long[uncovered.length];
+		for(int k = 0; k < safe.length; k++) safe[k] = uncovered[k] & ~mines[k];
+		long[] result = neighborsOf(safe);
+		for(int k = 0; k < result.length; k++) result[k] &= ~uncovered[k] & ~flagged[k];
+        return result;
+    }
+
+    /**
+     * This method returns the locations that uncovering (row, col)
+     * would uncover, as Grid.uncoverAt does: nothing if it is not
+     * covered, only itself if it holds a mine or has a hint, and
+     * otherwise every covered, unflagged location reached by
+     * cascading through locations with a hint of 0.
+     *
+     * The cascade is grown a row at a time, sweeping down the board
+     * and back up until nothing changes. Within a row, each run of
+     * zero-hint locations touching the cascade is filled at once,
+     * with a carrying addition, so the number of sweeps depends on how
+     * often the cascade turns back on itself, not on its size.
+     *
+     * @param row
+     * @param col
+     * @return the set of locations that would be uncovered
+     */
+    public long[] cascade(int row, int col) {
+		long[] region = new long[mines.length];
+		int start = word(row, col);
+		long bit = 1L << col;
+		if((uncovered[start] & bit) != 0 || (flagged[start] & bit) != 0) return region;
+		region[start] = bit;
+		long[] zeros = withHint(0);
+		if((zeros[start] & bit) == 0) return region;
+		long[] open = new long[mines.length];
+		for(int k = 0; k < open.length; k++) {
+			open[k] = ~mines[k] & ~uncovered[k] & ~flagged[k] & mask(k % wordsPerRow);
+			zeros[k] &= open[k];
+		}
+		long[] rowWords = new long[wordsPerRow];
+		boolean changed = true;
+		while(changed) {
+			changed = false;
+			for(int r = 0; r < height; r++) changed |= grow(region, zeros, open, r, rowWords);
+			for(int r = height - 1; r >= 0; r--) changed |= grow(region, zeros, open, r, rowWords);
+		}
+        return region;
+    }
+
+    /**
+     * This method grows the cascade in one row, from the zero-hint
+     * locations of the cascade in the rows around it and in the row
+     * itself, and returns whether it grew.
+     */
+    private boolean grow(long[] region, long[] zeros, long[] open, int row, long[] seeds) {
+		int base = row * wordsPerRow;
+		boolean any = false;
+		for(int j = 0; j < wordsPerRow; j++) {
+			long from = 0;
+			if(row > 0) from |= spreadAnd(region, zeros, row - 1, j, true);
+			if(row < height - 1) from |= spreadAnd(region, zeros, row + 1, j, true);
+			seeds[j] = region[base + j] | (from & open[base + j]);
+			any |= seeds[j] != 0;
+		}
+		if(!any) return false;
+		long carry = 0;
+		for(int j = 0; j < wordsPerRow; j++) {
+			long z = zeros[base + j];
+			long s = (seeds[j] & z) | (carry & z & 1);
+			long filled = (((z + s) ^ z) & z) | s;
+			carry = filled >>> 63;
+			seeds[j] |= filled;
+		}
+		carry = 0;
+		for(int j = wordsPerRow - 1; j >= 0; j--) {
+			long z = Long.reverse(zeros[base + j]);
+			long s = (Long.reverse(seeds[j]) & z) | (carry & z & 1);
+			long filled = (((z + s) ^ z) & z) | s;
+			carry = filled >>> 63;
+			seeds[j] |= Long.reverse(filled);
+		}
+		boolean grew = false;
+		for(int j = 0; j < wordsPerRow; j++) {
+			long z = seeds[j] & zeros[base + j];
+			long west = (z << 1) | ((j > 0) ? (seeds[j - 1] & zeros[base + j - 1]) >>> 63 : 0);
+			long east = (z >>> 1) | ((j < wordsPerRow - 1) ? (seeds[j + 1] & zeros[base + j + 1]) << 63 : 0);
+			long next = seeds[j] | ((west | east) & open[base + j]);
+			if(next != region[base + j]) {
+				region[base + j] = next;
+				grew = true;
+			}
+		}
+        return grew;
+    }
+
+    /**
+     * This method returns Result.LOSE if a mine is uncovered,
+     * Result.WIN if every safe location is uncovered, and Result.NONE
+     * otherwise, checking 64 locations per step.
+     *
+     * @return the result of the game
+     */
+    public Grid.Result getResult() {
+		boolean won = true;
+		for(int k = 0; k < mines.length; k++) {
+			if((mines[k] & uncovered[k]) != 0) return Grid.Result.LOSE;
+			if((~mines[k] & ~uncovered[k] & mask(k % wordsPerRow)) != 0) won = false;
+		}
+        return won ? Grid.Result.WIN : Grid.Result.NONE;
+    }
+
+    /**
+     * This method returns the word of row `row` of the set, for word
+     * `j` of a row, shifted so that each bit holds whether any of the
+     * locations left of, right of, or (if `center`) at that column is
+     * in the set. Rows off the board are empty.
+     */
+    private long spread(long[] set, int row, int j, boolean center) {
+		if(row < 0 || row >= height) return 0;
+		int k = row * wordsPerRow + j;
+		long word = set[k];
+		long west = (word << 1) | ((j > 0) ? set[k - 1] >>> 63 : 0);
+		long east = (word >>> 1) | ((j < wordsPerRow - 1) ? set[k + 1] << 63 : 0);
+        return center ? west | word | east : west | east;
+    }
+
+    /**
+     * This method works like spread (with the center) on the
+     * intersection of two sets.
+     */
+    private long spreadAnd(long[] a, long[] b, int row, int j, boolean center) {
+		int k = row * wordsPerRow + j;
+		long word = a[k] & b[k];
+		long west = (word << 1) | ((j > 0) ? (a[k - 1] & b[k - 1]) >>> 63 : 0);
+		long east = (word >>> 1) | ((j < wordsPerRow - 1) ? (a[k + 1] & b[k + 1]) << 63 : 0);
+        return center ? west | word | east : west | east;
+    }
+
+    /**
+     * This method returns the locations in word `j` of row `row` that
+     * have exactly `count` of their 8 neighbors in the set. Each 
+     * neighbor word is added to four bit planes (p0 to p3) with the 
+     * carries rippled up through them, and the planes are then matched
+     * against the bits of `count`.
+     */
+    private long matchNeighbors(long[] set, int row, int j, int count) {
+		long p0 = 0, p1 = 0, p2 = 0, p3 = 0;
+		for(int r = row - 1; r <= row + 1; r++) {
+			if(r < 0 || r >= height) continue;
+			int k = r * wordsPerRow + j;
+			long word = set[k];
+			long west = (word << 1) | ((j > 0) ? set[k - 1] >>> 63 : 0);
+			long east = (word >>> 1) | ((j < wordsPerRow - 1) ? set[k + 1] << 63 : 0);
+			long center = (r == row) ? 0 : word;
+			for(int n = 0; n < 3; n++) {
+				long bits = (n == 0) ? west : (n == 1) ? center : east;
+				long c0 = p0 & bits;
+				p0 ^= bits;
+				long c1 = p1 & c0;
+				p1 ^= c0;
+				long c2 = p2 & c1;
+				p2 ^= c1;
+				p3 |= c2;
+			}
+		}
+		long m0 = -(count & 1);
+		long m1 = -((count >>> 1) & 1);
+		long m2 = -((count >>> 2) & 1);
+		long m3 = -((count >>> 3) & 1);
+        return ~(p0 ^ m0) & ~(p1 ^ m1) & ~(p2 ^ m2) & ~(p3 ^ m3);
+    }
+
+    /**
+     * This method returns the bits of word `j` of a row that are on
+     * the board.
+     */
+    private long mask(int j) {
+        return (j == wordsPerRow - 1) ? lastMask : -1L;
+    }
+
+    public String toString() {
+		StringBuilder out = new StringBuilder((width + 1) * height);
+		for(int row = 0; row < height; row++) {
+			for(int col = 0; col < width; col++) {
+				int k = row * wordsPerRow + (col >>> 6);
+				long bit = 1L << col;
+				if((flagged[k] & bit) != 0) out.append('F');
+				else if((uncovered[k] & bit) == 0) out.append('#');
+				else if((mines[k] & bit) != 0) out.append('*');
+				else out.append('.');
+			}
+			out.append('\n');
+		}
+        return out.toString();
+    }
+}
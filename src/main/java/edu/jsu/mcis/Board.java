@@ -0,0 +1,333 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class holds the cell state of a Minesweeper board packed into
+ * a flat array with one byte per cell (row-major order). Each byte is
+ * laid out as follows:
+ *
+ *     bits 0-3  the hint, an integer in the range [0, 8]
+ *     bit  4    whether the cell contains a mine
+ *     bits 5-6  the type (the ordinal of Location.Type)
+ *
+ * A zero byte is therefore a covered cell with no mine and a hint of
+ * 0, which is the default state of a Location. Grid and Location
+ * both read and write cells through this class, so a Location handed
+ * out by the Grid is only a lightweight view of one of these bytes.
+ *
+ * Because every change goes through here, the board also keeps 
+ * running counts of uncovered safe cells, uncovered mines, and flags.
+ * The Grid answers getResult from these counts instead of scanning.
+ */
+class Board {
+    static final int HINT_MASK = 0x0F;
+    static final int MINE_SHIFT = 4;
+    static final int MINE_BIT = 1 << MINE_SHIFT;
+    static final int TYPE_SHIFT = 5;
+    static final int TYPE_MASK = 0x03 << TYPE_SHIFT;
+
+    static final int COVERED = Location.Type.COVERED.ordinal() << TYPE_SHIFT;
+    static final int UNCOVERED = Location.Type.UNCOVERED.ordinal() << TYPE_SHIFT;
+    static final int FLAGGED = Location.Type.FLAGGED.ordinal() << TYPE_SHIFT;
+
+    private static final Location.Type[] TYPES = Location.Type.values();
+
+    private final int width;
+    private final int height;
+    private final byte[] cells;
+    private int uncoveredSafe;
+    private int uncoveredMines;
+    private int flagged;
+
+    /**
+     * This constructor creates a board of the specified dimensions
+     * with every cell in the default state (covered, no mine, hint 0).
+     *
+     * @param width the number of columns
+     * @param height the number of rows
+     */
+    Board(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.cells = new byte[width * height];
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int size() {
+        return cells.length;
+    }
+
+    int index(int row, int col) {
+        return row * width + col;
+    }
+
+    /**
+     * This method returns every cell to the default state.
+     */
+    void clear() {
+		Arrays.fill(cells, (byte)0);
+		clearCounts();
+    }
+
+    /**
+     * This method returns the cells in [fromIndex, toIndex) to the 
+     * default state without touching the running counts, so that 
+     * disjoint ranges can be cleared at the same time. The counts must
+     * be zeroed with clearCounts once every cell is cleared.
+     *
+     * @param fromIndex the first cell (inclusive)
+     * @param toIndex the last cell (exclusive)
+     */
+    void clearCells(int fromIndex, int toIndex) {
+		Arrays.fill(cells, fromIndex, toIndex, (byte)0);
+    }
+
+    void clearCounts() {
+		uncoveredSafe = 0;
+		uncoveredMines = 0;
+		flagged = 0;
+    }
+
+    int getUncoveredSafe() {
+        return uncoveredSafe;
+    }
+
+    int getUncoveredMines() {
+        return uncoveredMines;
+    }
+
+    int getFlagged() {
+        return flagged;
+    }
+
+    Location.Type getType(int index) {
+        return TYPES[(cells[index] & TYPE_MASK) >>> TYPE_SHIFT];
+    }
+
+    void setType(int index, Location.Type type) {
+		int cell = cells[index];
+		count(cell, -1);
+		cell = (cell & ~TYPE_MASK) | (type.ordinal() << TYPE_SHIFT);
+		count(cell, 1);
+		cells[index] = (byte)cell;
+    }
+
+    /**
+     * This method adds `delta` to whichever running count the cell 
+     * belongs to (if any).
+     *
+     * @param cell the packed cell
+     * @param delta 1 when the cell enters the board, -1 when it leaves
+     */
+    private void count(int cell, int delta) {
+		int type = cell & TYPE_MASK;
+		if(type == UNCOVERED) {
+			if((cell & MINE_BIT) != 0) uncoveredMines += delta;
+			else uncoveredSafe += delta;
+		}
+		else if(type == FLAGGED) {
+			flagged += delta;
+		}
+    }
+
+    /**
+     * This method recounts uncovered safe cells, uncovered mines, and
+     * flags with a full scan and compares them to the running counts.
+     *
+     * @throws IllegalStateException if the counts do not match
+     */
+    void verifyCounts() {
+		int safe = 0;
+		int mines = 0;
+		int flags = 0;
+		for(int i = 0; i < cells.length; i++) {
+			int type = cells[i] & TYPE_MASK;
+			if(type == UNCOVERED) {
+				if((cells[i] & MINE_BIT) != 0) mines++;
+				else safe++;
+			}
+			else if(type == FLAGGED) {
+				flags++;
+			}
+		}
+		if(safe != uncoveredSafe || mines != uncoveredMines || flags != flagged) {
+			throw new IllegalStateException("counts " + uncoveredSafe + "/" + uncoveredMines + "/" + flagged 
+			                                + " do not match scan " + safe + "/" + mines + "/" + flags);
+		}
+    }
+
+    /**
+     * This method recomputes the running counts from the cells, as 
+     * after the cells have been read in bulk.
+     *
+     * @return the number of mines on the board
+     * @throws IllegalStateException if a cell has an illegal type or hint
+     */
+    int recount() {
+		uncoveredSafe = 0;
+		uncoveredMines = 0;
+		flagged = 0;
+		int mines = 0;
+		for(int i = 0; i < cells.length; i++) {
+			int cell = cells[i];
+			if((cell & TYPE_MASK) == TYPE_MASK || (cell & HINT_MASK) > 8 || cell < 0) {
+				throw new IllegalStateException("Illegal cell " + cell + " at index " + i);
+			}
+			if((cell & MINE_BIT) != 0) mines++;
+			count(cell, 1);
+		}
+		return mines;
+    }
+
+    /**
+     * This method returns the array of packed cells itself, so that it
+     * can be written or read in bulk.
+     *
+     * @return the cells of the board
+     */
+    byte[] getCells() {
+        return cells;
+    }
+
+    /**
+     * This method returns the raw type bits of the cell so that hot
+     * loops can compare against COVERED, UNCOVERED, and FLAGGED
+     * without going through the enum.
+     *
+     * @param index the cell index
+     * @return the type bits of the cell
+     */
+    int typeBits(int index) {
+        return cells[index] & TYPE_MASK;
+    }
+
+    /**
+     * This method returns true if the cell is covered and contains no
+     * mine, which is the test the uncover cascade makes for every
+     * neighbor it visits.
+     *
+     * @param index the cell index
+     * @return whether the cell is covered and contains no mine
+     */
+    boolean isCoveredSafe(int index) {
+        return (cells[index] & (TYPE_MASK | MINE_BIT)) == COVERED;
+    }
+
+    boolean hasMine(int index) {
+        return (cells[index] & MINE_BIT) != 0;
+    }
+
+    void setMine(int index, boolean mine) {
+		int cell = cells[index];
+		count(cell, -1);
+		if(mine) cell |= MINE_BIT;
+		else cell &= ~MINE_BIT;
+		count(cell, 1);
+		cells[index] = (byte)cell;
+    }
+
+    int getHint(int index) {
+        return cells[index] & HINT_MASK;
+    }
+
+    void setHint(int index, int hint) {
+		cells[index] = (byte)((cells[index] & ~HINT_MASK) | (hint & HINT_MASK));
+    }
+
+    /**
+     * This method adds one to the hint of every neighbor of every 
+     * mine. The hints must all be 0 beforehand (as after clear).
+     */
+    void addMineHints() {
+		for(int index = 0; index < cells.length; index++) {
+			if((cells[index] & MINE_BIT) != 0) {
+				int row = index / width;
+				int col = index - row * width;
+				int rowEnd = Math.min(row + 1, height - 1);
+				int colEnd = Math.min(col + 1, width - 1);
+				for(int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+					for(int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+						if(i != row || j != col) cells[i * width + j]++;
+					}
+				}
+			}
+		}
+    }
+
+    /**
+     * This method sets the hint of every cell in rows [fromRow, toRow)
+     * to the number of mines around it. It only writes cells in those
+     * rows, so disjoint row ranges can be computed at the same time.
+     * For each row it first sums the mines in each column of the three
+     * rows around it, so each hint is three additions instead of nine.
+     *
+     * @param fromRow the first row (inclusive)
+     * @param toRow the last row (exclusive)
+     */
+    void countMineHints(int fromRow, int toRow) {
+		int[] column = new int[width + 2];
+		for(int row = fromRow; row < toRow; row++) {
+			int rowStart = Math.max(row - 1, 0);
+			int rowEnd = Math.min(row + 1, height - 1);
+			for(int col = 0; col < width; col++) {
+				int sum = 0;
+				for(int i = rowStart; i <= rowEnd; i++) {
+					sum += (cells[i * width + col] >>> MINE_SHIFT) & 1;
+				}
+				column[col + 1] = sum;
+			}
+			int index = row * width;
+			for(int col = 0; col < width; col++, index++) {
+				int hint = column[col] + column[col + 1] + column[col + 2] - ((cells[index] >>> MINE_SHIFT) & 1);
+				cells[index] = (byte)((cells[index] & ~HINT_MASK) | hint);
+			}
+		}
+    }
+
+    /**
+     * This method returns the first cell whose hint is not the number
+     * of mines around it, so that cells read in bulk can be checked. 
+     * It sums the mines in each column of three rows as 
+     * countMineHints does.
+     *
+     * @return the index of that cell, or -1 if every hint is right
+     */
+    int findWrongHint() {
+		int[] column = new int[width + 2];
+		for(int row = 0; row < height; row++) {
+			int rowStart = Math.max(row - 1, 0);
+			int rowEnd = Math.min(row + 1, height - 1);
+			for(int col = 0; col < width; col++) {
+				int sum = 0;
+				for(int i = rowStart; i <= rowEnd; i++) {
+					sum += (cells[i * width + col] >>> MINE_SHIFT) & 1;
+				}
+				column[col + 1] = sum;
+			}
+			int index = row * width;
+			for(int col = 0; col < width; col++, index++) {
+				int hint = column[col] + column[col + 1] + column[col + 2] - ((cells[index] >>> MINE_SHIFT) & 1);
+				if((cells[index] & HINT_MASK) != hint) return index;
+			}
+		}
+        return -1;
+    }
+
+    /**
+     * This method returns the cell at `index` to the default state.
+     *
+     * @param index the cell index
+     */
+    void reset(int index) {
+		count(cells[index], -1);
+		cells[index] = 0;
+    }
+}
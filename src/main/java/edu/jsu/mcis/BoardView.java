@@ -0,0 +1,252 @@
+package edu.jsu.mcis;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.*;
+import javax.swing.*;
+
+/**
+ * This class is a single component that draws a whole Grid, for boards
+ * too large to show with one JLabel per location. It paints only the
+ * locations inside the clip rectangle, each as one copy from a tile
+ * atlas: an image that holds, side by side, the covered, flagged, and
+ * mine tiles and the uncovered tiles for hints 0 through 8, drawn once
+ * at the current tile size. It reads the locations straight from the
+ * grid's Board, so painting allocates nothing per location.
+ *
+ * Mouse coordinates are turned into locations by dividing by the tile
+ * size (see cellAt). The view implements Scrollable so that it can be
+ * put in a JScrollPane, and holding Control while turning the mouse
+ * wheel zooms it in and out (see setTileSize).
+ */
+public class BoardView extends JComponent implements Scrollable {
+    public static final int MIN_TILE_SIZE = 4;
+    public static final int MAX_TILE_SIZE = 64;
+
+    private static final int COVERED_TILE = 9;
+    private static final int FLAGGED_TILE = 10;
+    private static final int MINE_TILE = 11;
+    private static final int TILES = 12;
+    private static final Color[] DIGIT_COLORS = {
+		Color.BLACK, Color.BLUE, new Color(0, 128, 0), Color.RED, new Color(0, 0, 128),
+		new Color(128, 0, 0), new Color(0, 128, 128), Color.BLACK, Color.GRAY
+    };
+
+    private final Grid grid;
+    private final Board board;
+    private final Image flagImage;
+    private final Image mineImage;
+    private int tileSize;
+    private BufferedImage atlas;
+
+    /**
+     * This constructor creates a view of the grid with the specified
+     * tile size.
+     *
+     * @param grid the grid to draw
+     * @param tileSize the width and height of a location in pixels
+     * @param flagImage the image drawn on flagged locations
+     * @param mineImage the image drawn on uncovered mines
+     */
+    public BoardView(Grid grid, int tileSize, Image flagImage, Image mineImage) {
+		this.grid = grid;
+		this.board = grid.getBoard();
+		this.flagImage = flagImage;
+		this.mineImage = mineImage;
+		setTileSize(tileSize);
+		setOpaque(true);
+		addMouseWheelListener(new MouseWheelListener() {
+			public void mouseWheelMoved(MouseWheelEvent event) {
+				if(event.isControlDown()) {
+					zoom(event.getWheelRotation() < 0 ? 2 : -2, event.getPoint());
+				}
+				else if(getParent() != null) {
+					getParent().dispatchEvent(SwingUtilities.convertMouseEvent(BoardView.this, event, getParent()));
+				}
+			}
+		});
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * This method changes the size of a location on screen, which is
+     * kept in [MIN_TILE_SIZE, MAX_TILE_SIZE], and redraws the atlas.
+     *
+     * @param tileSize the width and height of a location in pixels
+     */
+    public void setTileSize(int tileSize) {
+		tileSize = Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, tileSize));
+		if(tileSize == this.tileSize) return;
+		this.tileSize = tileSize;
+		atlas = createAtlas(tileSize);
+		revalidate();
+		repaint();
+    }
+
+    /**
+     * This method changes the tile size by `delta` and scrolls so that
+     * the location under `anchor` stays under it.
+     */
+    private void zoom(int delta, Point anchor) {
+		int old = tileSize;
+		Rectangle visible = getVisibleRect();
+		setTileSize(tileSize + delta);
+		if(tileSize == old) return;
+		setSize(getPreferredSize());
+		int x = (int)((long)anchor.x * tileSize / old) - (anchor.x - visible.x);
+		int y = (int)((long)anchor.y * tileSize / old) - (anchor.y - visible.y);
+		scrollRectToVisible(new Rectangle(x, y, visible.width, visible.height));
+    }
+
+    /**
+     * This method returns the location under a point of the view.
+     *
+     * @param point a point in the view's coordinates
+     * @return the point (x is row, y is column) of the location, or
+     *         (-1, -1) if the point is outside the board
+     */
+    public Point cellAt(Point point) {
+		int row = Math.floorDiv(point.y, tileSize);
+		int col = Math.floorDiv(point.x, tileSize);
+		if(row < 0 || row >= grid.getHeight() || col < 0 || col >= grid.getWidth()) return new Point(-1, -1);
+		return new Point(row, col);
+    }
+
+    /**
+     * This method returns the rectangle of the view covered by the
+     * locations in rows [fromRow, toRow] and columns [fromCol, toCol].
+     *
+     * @return the rectangle in the view's coordinates
+     */
+    public Rectangle cellBounds(int fromRow, int fromCol, int toRow, int toCol) {
+        return new Rectangle(fromCol * tileSize, fromRow * tileSize, (toCol - fromCol + 1) * tileSize, (toRow - fromRow + 1) * tileSize);
+    }
+
+    /**
+     * This method repaints the smallest rectangle that holds every
+     * location in the batch.
+     *
+     * @param changes the locations that changed
+     */
+    public void repaintCells(CellChanges changes) {
+		if(changes.size() == 0) return;
+		int fromRow = Integer.MAX_VALUE;
+		int fromCol = Integer.MAX_VALUE;
+		int toRow = -1;
+		int toCol = -1;
+		for(int i = 0; i < changes.size(); i++) {
+			int row = changes.getRow(i);
+			int col = changes.getCol(i);
+			fromRow = Math.min(fromRow, row);
+			fromCol = Math.min(fromCol, col);
+			toRow = Math.max(toRow, row);
+			toCol = Math.max(toCol, col);
+		}
+		repaint(cellBounds(fromRow, fromCol, toRow, toCol));
+    }
+
+    public Dimension getPreferredSize() {
+		if(isPreferredSizeSet()) return super.getPreferredSize();
+        return new Dimension(grid.getWidth() * tileSize, grid.getHeight() * tileSize);
+    }
+
+    protected void paintComponent(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		if(clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+		g.setColor(getBackground() != null ? getBackground() : Color.LIGHT_GRAY);
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		int fromRow = Math.max(0, clip.y / tileSize);
+		int fromCol = Math.max(0, clip.x / tileSize);
+		int toRow = Math.min(grid.getHeight() - 1, (clip.y + clip.height - 1) / tileSize);
+		int toCol = Math.min(grid.getWidth() - 1, (clip.x + clip.width - 1) / tileSize);
+		for(int row = fromRow; row <= toRow; row++) {
+			int y = row * tileSize;
+			int index = board.index(row, fromCol);
+			for(int col = fromCol; col <= toCol; col++, index++) {
+				int x = col * tileSize;
+				int source = tileOf(index) * tileSize;
+				g.drawImage(atlas, x, y, x + tileSize, y + tileSize, source, 0, source + tileSize, tileSize, null);
+			}
+		}
+    }
+
+    /**
+     * This method returns which tile of the atlas shows the location.
+     *
+     * @param index the index of the location in the board
+     * @return the number of the tile
+     */
+    private int tileOf(int index) {
+		int type = board.typeBits(index);
+		if(type == Board.COVERED) return COVERED_TILE;
+		if(type == Board.FLAGGED) return FLAGGED_TILE;
+		if(board.hasMine(index)) return MINE_TILE;
+		return board.getHint(index);
+    }
+
+    /**
+     * This method draws every tile at the specified size into one
+     * image, tile t at x = t * size.
+     */
+    private BufferedImage createAtlas(int size) {
+		BufferedImage image = new BufferedImage(TILES * size, size, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(size * 3 / 5, 3)));
+		FontMetrics metrics = g.getFontMetrics();
+		for(int t = 0; t < TILES; t++) {
+			int x = t * size;
+			if(t == COVERED_TILE || t == FLAGGED_TILE) {
+				g.setColor(new Color(192, 192, 192));
+				g.fill3DRect(x, 0, size, size, true);
+				if(t == FLAGGED_TILE) g.drawImage(flagImage, x + size / 8, size / 8, size * 3 / 4, size * 3 / 4, null);
+			}
+			else {
+				g.setColor(t == MINE_TILE ? Color.RED : new Color(224, 224, 224));
+				g.fillRect(x, 0, size, size);
+				g.setColor(Color.GRAY);
+				g.drawRect(x, 0, size - 1, size - 1);
+				if(t == MINE_TILE) {
+					g.drawImage(mineImage, x + size / 8, size / 8, size * 3 / 4, size * 3 / 4, null);
+				}
+				else if(t > 0 && size >= 8) {
+					String digit = String.valueOf(t);
+					g.setColor(DIGIT_COLORS[t]);
+					g.drawString(digit, x + (size - metrics.stringWidth(digit)) / 2, (size - metrics.getHeight()) / 2 + metrics.getAscent());
+				}
+			}
+		}
+		g.dispose();
+		return image;
+    }
+
+    public Dimension getPreferredScrollableViewportSize() {
+		Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, 800), Math.min(size.height, 600));
+    }
+
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return tileSize;
+    }
+
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+		int extent = (orientation == SwingConstants.HORIZONTAL) ? visibleRect.width : visibleRect.height;
+        return Math.max(tileSize, extent - tileSize);
+    }
+
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
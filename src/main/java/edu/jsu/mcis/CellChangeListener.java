@@ -0,0 +1,29 @@
+package edu.jsu.mcis;
+
+/**
+ * This interface is implemented by objects that want to receive the
+ * changes made by a Grid as one batch per action instead of one 
+ * Observer message per location. A single uncover that cascades 
+ * over thousands of locations produces one call to cellsChanged.
+ * Resetting the grid, which covers every location at once, is 
+ * reported by gridReset instead.
+ */
+public interface CellChangeListener {
+    /**
+     * This method is called once after every action on the grid that
+     * changed at least one location. The changes object is reused by
+     * the grid, so it is only valid until this method returns.
+     * 
+     * @param grid the grid that changed
+     * @param changes the locations that changed and their new info
+     */
+    void cellsChanged(Grid grid, CellChanges changes);
+    
+    /**
+     * This method is called after the grid is reset (see Grid.reset),
+     * when every location is covered again and has no flag.
+     * 
+     * @param grid the grid that was reset
+     */
+    void gridReset(Grid grid);
+}
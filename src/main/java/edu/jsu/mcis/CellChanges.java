@@ -0,0 +1,104 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class is the batch of location changes produced by a single
+ * action on a Grid (an uncover, including its whole cascade, or a
+ * flag placement or removal). Each change is stored as a pair of 
+ * primitives: the index of the location (row * width + col) and an
+ * info code, which is either a hint in the range [0, 8] or one of
+ * MINE, FLAG, and UNFLAG. These are the same values that the Grid
+ * sends to its observers as row:col:info strings.
+ *
+ * The Grid reuses one CellChanges object for every action, so a 
+ * listener must copy anything it wants to keep before returning.
+ */
+public class CellChanges {
+    public static final int MINE = 9;
+    public static final int FLAG = 10;
+    public static final int UNFLAG = 11;
+    
+    private final int width;
+    private int[] cells;
+    private byte[] info;
+    private int size;
+    
+    /**
+     * This constructor creates an empty batch for a grid with the
+     * specified number of columns.
+     * 
+     * @param width the width of the grid (number of columns)
+     */
+    public CellChanges(int width) {
+		this.width = width;
+		this.cells = new int[16];
+		this.info = new byte[16];
+		this.size = 0;
+    }
+    
+    /**
+     * This method appends a change to the batch.
+     * 
+     * @param index the index of the location (row * width + col)
+     * @param code the hint, or MINE, FLAG, or UNFLAG
+     */
+    void add(int index, int code) {
+		if(size == cells.length) {
+			cells = Arrays.copyOf(cells, size * 2);
+			info = Arrays.copyOf(info, size * 2);
+		}
+		cells[size] = index;
+		info[size] = (byte)code;
+		size++;
+    }
+    
+    void clear() {
+		size = 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int getIndex(int i) {
+        return cells[i];
+    }
+    
+    public int getRow(int i) {
+        return cells[i] / width;
+    }
+    
+    public int getCol(int i) {
+        return cells[i] % width;
+    }
+    
+    /**
+     * This method returns the info code of the i-th change, which is
+     * a hint in the range [0, 8] or one of MINE, FLAG, and UNFLAG.
+     * 
+     * @param i the position of the change in the batch
+     * @return the info code of the change
+     */
+    public int getInfo(int i) {
+        return info[i];
+    }
+    
+    /**
+     * This method returns the i-th change in the row:col:info form
+     * used by the Observer messages of the Grid.
+     * 
+     * @param i the position of the change in the batch
+     * @return the change as a row:col:info string
+     */
+    public String getMessage(int i) {
+        String text;
+		switch(info[i]) {
+			case MINE: text = "mine"; break;
+			case FLAG: text = "flag"; break;
+			case UNFLAG: text = "unflag"; break;
+			default: text = String.valueOf(info[i]);
+		}
+		return getRow(i) + ":" + getCol(i) + ":" + text;
+    }
+}
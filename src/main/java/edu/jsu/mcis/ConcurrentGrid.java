@@ -0,0 +1,450 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * This class is a Minesweeper grid that many threads can play at the
+ * same time, for multiplayer games and swarms of bots. It has the same
+ * rules as Grid, but no listeners or observers; instead uncoverAt can
+ * report what it uncovered in a CellChanges batch.
+ *
+ * The board is split into stripes of STRIPE_ROWS rows, each a Board of
+ * its own guarded by its own lock, so moves in different parts of the
+ * board never wait for each other. A flag only locks its own stripe. An
+ * uncover first works out, without any locks, which rows its cascade
+ * is likely to reach, then locks every stripe from one row above those
+ * to one row below them, in order from top to bottom (so two uncovers
+ * can never deadlock). With the locks held it works out the cascade
+ * again; if that one reaches a row it has not locked, because the board
+ * changed in between, it lets go and starts over with more rows.
+ * Otherwise it uncovers the whole cascade before letting go, so every
+ * uncover takes effect all at once, as if the moves had been made one
+ * at a time in some order.
+ *
+ * The counts behind getResult are kept in atomic counters updated
+ * while the stripe locks are held.
+ */
+public class ConcurrentGrid {
+    public static final int STRIPE_ROWS = 16;
+
+    private final int width;
+    private final int height;
+    private final int mines;
+    private final Random random;
+    private final Grid layout;
+    private final Board[] stripes;
+    private final ReentrantLock[] locks;
+    private final AtomicInteger uncoveredSafe = new AtomicInteger();
+    private final AtomicInteger uncoveredMines = new AtomicInteger();
+    private final AtomicInteger flagged = new AtomicInteger();
+    private final ThreadLocal<Scratch> scratch = new ThreadLocal<>();
+
+    /**
+     * This constructor creates a grid with mines placed as Grid would
+     * place them with the same Random.
+     *
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param random the pseudorandom number generator
+     * @throws IllegalArgumentException if the grid size or number of
+     *         mines is illegal (see Grid)
+     */
+    public ConcurrentGrid(int width, int height, int mines, Random random) {
+		this.layout = new Grid(width, height, mines, random);
+		this.width = width;
+		this.height = height;
+		this.mines = mines;
+		this.random = random;
+		int count = (height + STRIPE_ROWS - 1) / STRIPE_ROWS;
+		stripes = new Board[count];
+		locks = new ReentrantLock[count];
+		for(int s = 0; s < count; s++) {
+			stripes[s] = new Board(width, Math.min(STRIPE_ROWS, height - s * STRIPE_ROWS));
+			locks[s] = new ReentrantLock();
+		}
+		copyLayout();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getMines() {
+        return mines;
+    }
+
+    /**
+     * This method covers every location and places the mines again,
+     * holding every lock, so no move sees a half reset board. The new
+     * mines are laid out by resetting the same layout grid with a seed
+     * drawn from the Random (see Grid.reset(long)), so a reset builds
+     * no new grid.
+     */
+    public void reset() {
+		lockStripes(0, stripes.length - 1);
+		try {
+			layout.reset(random.nextLong());
+			copyLayout();
+		}
+		finally {
+			unlockStripes(0, stripes.length - 1);
+		}
+    }
+
+    private void copyLayout() {
+		byte[] cells = layout.getBoard().getCells();
+		for(int s = 0; s < stripes.length; s++) {
+			System.arraycopy(cells, s * STRIPE_ROWS * width, stripes[s].getCells(), 0, stripes[s].size());
+			stripes[s].recount();
+		}
+		uncoveredSafe.set(0);
+		uncoveredMines.set(0);
+		flagged.set(0);
+    }
+
+    /**
+     * This method returns Result.LOSE if a mine is uncovered,
+     * Result.WIN if all non-mine locations are uncovered, and
+     * Result.NONE otherwise.
+     *
+     * @return the state of the Minesweeper game outcome
+     */
+    public Grid.Result getResult() {
+		if(uncoveredMines.get() > 0) return Grid.Result.LOSE;
+		if((long)uncoveredSafe.get() + mines == (long)width * height) return Grid.Result.WIN;
+		return Grid.Result.NONE;
+    }
+
+    public int getUncoveredCount() {
+        return uncoveredSafe.get() + uncoveredMines.get();
+    }
+
+    public int getFlagCount() {
+        return flagged.get();
+    }
+
+    /**
+     * This method returns a copy of the location at (row, col), read
+     * while holding the lock of its stripe. Changing the copy does not
+     * change the grid.
+     *
+     * @param row
+     * @param col
+     * @return a copy of the location at (row, col)
+     * @throws IndexOutOfBoundsException if (row, col) is not a legal index
+     */
+    public Location getLocation(int row, int col) {
+		if(!isLegalIndex(row, col)) throw new IndexOutOfBoundsException("(" + row + ", " + col + ")");
+		int s = row / STRIPE_ROWS;
+		Location loc = new Location();
+		locks[s].lock();
+		try {
+			Board board = stripes[s];
+			int index = board.index(row - s * STRIPE_ROWS, col);
+			loc.setMine(board.hasMine(index));
+			loc.setHint(board.getHint(index));
+			loc.setType(board.getType(index));
+		}
+		finally {
+			locks[s].unlock();
+		}
+        return loc;
+    }
+
+    public boolean isFlagAt(int row, int col) {
+        return isLegalIndex(row, col) && getLocation(row, col).getType() == Location.Type.FLAGGED;
+    }
+
+    /**
+     * This method places a flag at (row, col) if that location is a
+     * legal index and is covered.
+     *
+     * @param row
+     * @param col
+     * @return whether the flag was placed
+     */
+    public boolean placeFlagAt(int row, int col) {
+        return changeFlag(row, col, Board.COVERED, Location.Type.FLAGGED, 1);
+    }
+
+    /**
+     * This method removes a flag at (row, col) if that location is a
+     * legal index and is flagged.
+     *
+     * @param row
+     * @param col
+     * @return whether the flag was removed
+     */
+    public boolean removeFlagAt(int row, int col) {
+        return changeFlag(row, col, Board.FLAGGED, Location.Type.COVERED, -1);
+    }
+
+    private boolean changeFlag(int row, int col, int from, Location.Type to, int delta) {
+		if(!isLegalIndex(row, col)) return false;
+		int s = row / STRIPE_ROWS;
+		locks[s].lock();
+		try {
+			Board board = stripes[s];
+			int index = board.index(row - s * STRIPE_ROWS, col);
+			if(board.typeBits(index) != from) return false;
+			board.setType(index, to);
+			flagged.addAndGet(delta);
+			return true;
+		}
+		finally {
+			locks[s].unlock();
+		}
+    }
+
+    /**
+     * This method uncovers (row, col) and cascades from it as
+     * Grid.uncoverAt does, atomically.
+     *
+     * @param row
+     * @param col
+     * @return the number of locations uncovered
+     */
+    public int uncoverAt(int row, int col) {
+        return uncoverAt(row, col, null);
+    }
+
+    /**
+     * This method uncovers (row, col) and cascades from it as
+     * Grid.uncoverAt does, atomically, and appends every location it
+     * uncovers to `changes` (if not null).
+     *
+     * @param row
+     * @param col
+     * @param changes the batch to append to, or null
+     * @return the number of locations uncovered
+     */
+    public int uncoverAt(int row, int col, CellChanges changes) {
+		if(!isLegalIndex(row, col)) return 0;
+		Scratch s = scratch.get();
+		if(s == null) {
+			s = new Scratch();
+			scratch.set(s);
+		}
+		int size = closure(row, col, s);
+		if(size == 0) return 0;
+		int fromStripe = Math.max(s.minRow - 1, 0) / STRIPE_ROWS;
+		int toStripe = Math.min(s.maxRow + 1, height - 1) / STRIPE_ROWS;
+		while(true) {
+			int needFrom;
+			int needTo;
+			lockStripes(fromStripe, toStripe);
+			try {
+				size = closure(row, col, s);
+				needFrom = Math.max(s.minRow - 1, 0) / STRIPE_ROWS;
+				needTo = Math.min(s.maxRow + 1, height - 1) / STRIPE_ROWS;
+				if(needFrom >= fromStripe && needTo <= toStripe) {
+					apply(s, size, changes);
+					return size;
+				}
+			}
+			finally {
+				unlockStripes(fromStripe, toStripe);
+			}
+			fromStripe = Math.min(fromStripe, needFrom);
+			toStripe = Math.max(toStripe, needTo);
+		}
+    }
+
+    /**
+     * This method works out which locations uncovering (row, col)
+     * would uncover, reading the board as it is, and leaves them in
+     * the scratch list along with the first and last row they are in.
+     * Without the locks the answer is only an estimate.
+     *
+     * @return the number of locations (0 if (row, col) is not covered)
+     */
+    private int closure(int row, int col, Scratch s) {
+		s.begin();
+		s.minRow = row;
+		s.maxRow = row;
+		if(typeBits(row, col) != Board.COVERED) return 0;
+		int start = row * width + col;
+		s.list[0] = start;
+		s.visit(start);
+		int size = 1;
+		if(!hasMine(row, col)) {
+			for(int next = 0; next < size; next++) {
+				int cell = s.list[next];
+				int r = cell / width;
+				int c = cell - r * width;
+				if(hint(r, c) != 0) continue;
+				int rowEnd = Math.min(r + 1, height - 1);
+				int colEnd = Math.min(c + 1, width - 1);
+				for(int i = Math.max(r - 1, 0); i <= rowEnd; i++) {
+					for(int j = Math.max(c - 1, 0); j <= colEnd; j++) {
+						int neighbor = i * width + j;
+						if(typeBits(i, j) == Board.COVERED && !hasMine(i, j) && s.visit(neighbor)) {
+							if(size == s.list.length) s.list = Arrays.copyOf(s.list, size * 2);
+							s.list[size++] = neighbor;
+							if(i < s.minRow) s.minRow = i;
+							if(i > s.maxRow) s.maxRow = i;
+						}
+					}
+				}
+			}
+		}
+		return size;
+    }
+
+    /**
+     * This method uncovers every location in the scratch list. The
+     * locks of their stripes must be held.
+     */
+    private void apply(Scratch s, int size, CellChanges changes) {
+		int safe = 0;
+		for(int i = 0; i < size; i++) {
+			int cell = s.list[i];
+			int r = cell / width;
+			int c = cell - r * width;
+			Board board = stripes[r / STRIPE_ROWS];
+			int index = board.index(r % STRIPE_ROWS, c);
+			board.setType(index, Location.Type.UNCOVERED);
+			if(board.hasMine(index)) {
+				uncoveredMines.incrementAndGet();
+				if(changes != null) changes.add(cell, CellChanges.MINE);
+			}
+			else {
+				safe++;
+				if(changes != null) changes.add(cell, board.getHint(index));
+			}
+		}
+		uncoveredSafe.addAndGet(safe);
+    }
+
+    private int typeBits(int row, int col) {
+        return stripes[row / STRIPE_ROWS].typeBits((row % STRIPE_ROWS) * width + col);
+    }
+
+    private boolean hasMine(int row, int col) {
+        return stripes[row / STRIPE_ROWS].hasMine((row % STRIPE_ROWS) * width + col);
+    }
+
+    private int hint(int row, int col) {
+        return stripes[row / STRIPE_ROWS].getHint((row % STRIPE_ROWS) * width + col);
+    }
+
+    private void lockStripes(int from, int to) {
+		for(int s = from; s <= to; s++) {
+			locks[s].lock();
+		}
+    }
+
+    private void unlockStripes(int from, int to) {
+		for(int s = to; s >= from; s--) {
+			locks[s].unlock();
+		}
+    }
+
+    private boolean isLegalIndex(int row, int col) {
+        return row >= 0 && row < height && col >= 0 && col < width;
+    }
+
+    /**
+     * This method checks the counts of every stripe, and the atomic
+     * counters, against a full scan. Every lock is held while it runs.
+     *
+     * @throws IllegalStateException if any count is wrong
+     */
+    void verifyCounts() {
+		lockStripes(0, stripes.length - 1);
+		try {
+			int safe = 0;
+			int exploded = 0;
+			int flags = 0;
+			for(Board board : stripes) {
+				board.verifyCounts();
+				safe += board.getUncoveredSafe();
+				exploded += board.getUncoveredMines();
+				flags += board.getFlagged();
+			}
+			if(safe != uncoveredSafe.get() || exploded != uncoveredMines.get() || flags != flagged.get()) {
+				throw new IllegalStateException("counters " + uncoveredSafe + "/" + uncoveredMines + "/" + flagged
+				                                + " do not match stripes " + safe + "/" + exploded + "/" + flags);
+			}
+		}
+		finally {
+			unlockStripes(0, stripes.length - 1);
+		}
+    }
+
+    /**
+     * This class is the work space of one thread: the list of locations
+     * in a cascade and a set marking them while it is worked out. The
+     * set is an open-addressing hash table that grows with the largest
+     * cascade the thread has worked out, not with the board. Each slot
+     * is stamped with the cascade that filled it, so starting the next
+     * cascade empties the table without touching it.
+     */
+    private static class Scratch {
+        int[] list = new int[64];
+        int[] cells = new int[128];
+        int[] stamps = new int[128];
+        int stamp;
+        int count;
+        int minRow;
+        int maxRow;
+
+        /**
+         * This method empties the set for a new cascade.
+         */
+        void begin() {
+			count = 0;
+			if(++stamp == 0) {
+				Arrays.fill(stamps, 0);
+				stamp = 1;
+			}
+        }
+
+        /**
+         * This method adds a location to the set.
+         *
+         * @param cell the index of the location (row * width + col)
+         * @return false if the location was already in the set
+         */
+        boolean visit(int cell) {
+			if(2 * (count + 1) > cells.length) grow();
+			int mask = cells.length - 1;
+			for(int slot = slot(cell, mask); ; slot = (slot + 1) & mask) {
+				if(stamps[slot] != stamp) {
+					stamps[slot] = stamp;
+					cells[slot] = cell;
+					count++;
+					return true;
+				}
+				if(cells[slot] == cell) return false;
+			}
+        }
+
+        private void grow() {
+			int[] oldCells = cells;
+			int[] oldStamps = stamps;
+			cells = new int[oldCells.length * 2];
+			stamps = new int[oldCells.length * 2];
+			int mask = cells.length - 1;
+			for(int i = 0; i < oldCells.length; i++) {
+				if(oldStamps[i] != stamp) continue;
+				int slot = slot(oldCells[i], mask);
+				while(stamps[slot] == stamp) slot = (slot + 1) & mask;
+				stamps[slot] = stamp;
+				cells[slot] = oldCells[i];
+			}
+        }
+
+        private static int slot(int cell, int mask) {
+			int h = cell * 0x9E3779B9;
+			return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package edu.jsu.mcis;
+
+import java.awt.*;
+import java.util.*;
+
+/**
+ * This class collects the locations changed on a grid, from any
+ * thread, until the event dispatch thread takes them to update the
+ * screen. It keeps the bounding rectangle of every location added
+ * since it was last drained and, if asked to, the latest info code of
+ * each of those locations (see CellChanges). A location changed many
+ * times between two drains is only kept once, with its latest code, so
+ * the memory it needs and the work of a drain are bounded by the size
+ * of the grid no matter how fast changes arrive.
+ *
+ * Every method is synchronized, so changes can be added by a worker
+ * thread while the event dispatch thread drains them.
+ */
+public class DirtyRegion {
+    private final BitSet dirty;
+    private final int[] info;
+    private int fromRow = Integer.MAX_VALUE;
+    private int fromCol = Integer.MAX_VALUE;
+    private int toRow = -1;
+    private int toCol = -1;
+
+    /**
+     * This constructor creates an empty region for a grid of the
+     * specified size.
+     *
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param keepInfo whether to keep the latest info code of every
+     *        location, and not just the bounding rectangle
+     */
+    public DirtyRegion(int width, int height, boolean keepInfo) {
+		this.dirty = keepInfo ? new BitSet(width * height) : null;
+		this.info = keepInfo ? new int[width * height] : null;
+    }
+
+    /**
+     * This method adds every location in the batch.
+     *
+     * @param changes the locations that changed and their new info
+     */
+    public synchronized void add(CellChanges changes) {
+		for(int i = 0; i < changes.size(); i++) {
+			int row = changes.getRow(i);
+			int col = changes.getCol(i);
+			if(row < fromRow) fromRow = row;
+			if(row > toRow) toRow = row;
+			if(col < fromCol) fromCol = col;
+			if(col > toCol) toCol = col;
+			if(info != null) {
+				int index = changes.getIndex(i);
+				dirty.set(index);
+				info[index] = changes.getInfo(i);
+			}
+		}
+    }
+
+    public synchronized boolean isEmpty() {
+        return toRow < 0;
+    }
+
+    /**
+     * This method empties the region and returns its bounding
+     * rectangle in locations (x is the first column, y the first row).
+     *
+     * @return the bounding rectangle, or null if the region was empty
+     */
+    public synchronized Rectangle takeBounds() {
+		if(toRow < 0) return null;
+		Rectangle bounds = new Rectangle(fromCol, fromRow, toCol - fromCol + 1, toRow - fromRow + 1);
+		clear();
+		return bounds;
+    }
+
+    /**
+     * This method empties the region and copies each location in it
+     * (as an index, row * width + col) and its latest info code into
+     * the arrays, in index order. The region must keep info codes.
+     *
+     * @param cells receives the indices; must hold every location
+     * @param infos receives the info codes; must hold every location
+     * @return the number of locations copied
+     */
+    public synchronized int drain(int[] cells, int[] infos) {
+		int count = 0;
+		for(int index = dirty.nextSetBit(0); index >= 0; index = dirty.nextSetBit(index + 1)) {
+			cells[count] = index;
+			infos[count] = info[index];
+			count++;
+		}
+		clear();
+		return count;
+    }
+
+    /**
+     * This method empties the region and copies each location in it
+     * (as an index, row * width + col) into the array, in index order.
+     * The region must keep info codes.
+     *
+     * @param cells receives the indices; must hold every location
+     * @return the number of locations copied
+     */
+    public synchronized int drain(int[] cells) {
+		int count = 0;
+		for(int index = dirty.nextSetBit(0); index >= 0; index = dirty.nextSetBit(index + 1)) {
+			cells[count++] = index;
+		}
+		clear();
+		return count;
+    }
+
+    /**
+     * This method empties the region, dropping the locations in it.
+     */
+    public synchronized void clear() {
+		if(dirty != null) dirty.clear();
+		fromRow = Integer.MAX_VALUE;
+		fromCol = Integer.MAX_VALUE;
+		toRow = -1;
+		toCol = -1;
+    }
+}
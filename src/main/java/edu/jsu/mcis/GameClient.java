@@ -0,0 +1,122 @@
+package edu.jsu.mcis;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+
+/**
+ * This class is a blocking client for a GameServer. It sends one 
+ * request at a time and waits for the answer (see GameServer for the
+ * protocol). It is not thread-safe; each thread should use its own.
+ */
+public class GameClient implements Closeable {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64);
+    private ByteBuffer in = ByteBuffer.allocateDirect(1 << 16);
+    
+    /**
+     * This constructor connects to a server.
+     * 
+     * @param address the address of the server
+     * @throws IOException if the connection fails
+     */
+    public GameClient(InetSocketAddress address) throws IOException {
+		channel = SocketChannel.open(address);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+    
+    /**
+     * This method starts a new game on the server.
+     * 
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param seed the seed of the game's Random
+     * @return the number of the game
+     * @throws IOException if the server cannot be reached or refuses
+     */
+    public int newGame(int width, int height, int mines, long seed) throws IOException {
+		out.clear();
+		out.putInt(21).put((byte)GameServer.NEW_GAME).putInt(width).putInt(height).putInt(mines).putLong(seed);
+		ByteBuffer answer = send(GameServer.GAME);
+        return answer.getInt();
+    }
+    
+    /**
+     * This method makes a move in a game and copies the locations it
+     * changed into `changes`, which should be empty and made for the
+     * width of the game.
+     * 
+     * @param game the number of the game
+     * @param action MoveJournal.UNCOVER, FLAG, UNFLAG, or CHORD
+     * @param row 
+     * @param col 
+     * @param changes receives the changed locations
+     * @return the result of the game after the move
+     * @throws IOException if the server cannot be reached or refuses
+     */
+    public Grid.Result move(int game, int action, int row, int col, CellChanges changes) throws IOException {
+		out.clear();
+		out.putInt(14).put((byte)GameServer.MOVE).putInt(game).put((byte)action).putInt(row).putInt(col);
+		ByteBuffer answer = send(GameServer.DIFF);
+		answer.getInt();
+		Grid.Result result = Grid.Result.values()[answer.get()];
+		int count = answer.getInt();
+		for(int i = 0; i < count; i++) {
+			changes.add(answer.getInt(), answer.get());
+		}
+        return result;
+    }
+    
+    /**
+     * This method ends a game on the server.
+     * 
+     * @param game the number of the game
+     * @throws IOException if the server cannot be reached or refuses
+     */
+    public void endGame(int game) throws IOException {
+		out.clear();
+		out.putInt(5).put((byte)GameServer.END_GAME).putInt(game);
+		send(GameServer.ENDED);
+    }
+    
+    public void close() throws IOException {
+		channel.close();
+    }
+    
+    /**
+     * This method sends the request in `out` and returns the answer,
+     * positioned after its type.
+     */
+    private ByteBuffer send(int expected) throws IOException {
+		out.flip();
+		while(out.hasRemaining()) channel.write(out);
+		in.clear();
+		in.limit(4);
+		fill();
+		int length = in.getInt(0);
+		if(length > in.capacity()) in = ByteBuffer.allocateDirect(length);
+		in.clear();
+		in.limit(length);
+		fill();
+		in.flip();
+		int type = in.get();
+		if(type == GameServer.ERROR) {
+			byte[] message = new byte[in.remaining()];
+			in.get(message);
+			throw new IOException(new String(message, UTF8));
+		}
+		if(type != expected) throw new IOException("Unexpected answer " + type);
+        return in;
+    }
+    
+    private void fill() throws IOException {
+		while(in.hasRemaining()) {
+			if(channel.read(in) < 0) throw new EOFException("Server closed the connection");
+		}
+    }
+}
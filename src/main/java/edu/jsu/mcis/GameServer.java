@@ -0,0 +1,390 @@
+package edu.jsu.mcis;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * This class hosts many games of Minesweeper at once for clients on
+ * other threads or processes. One thread runs a non-blocking NIO
+ * selector over every connection and owns every game, so the games
+ * need no locks. Any connection may play any game, so several players
+ * can share one board.
+ *
+ * Clients and server exchange frames, each an int length followed by
+ * that many bytes of message (all numbers big-endian). Requests are
+ *
+ *     NEW_GAME  byte 1, int width, int height, int mines, long seed
+ *     MOVE      byte 2, int game, byte action, int row, int col
+ *     END_GAME  byte 3, int game
+ *
+ * where the action is one of the MoveJournal codes UNCOVER, FLAG,
+ * UNFLAG, and CHORD. The server answers each request, in order, with
+ *
+ *     GAME      byte 1, int game
+ *     DIFF      byte 2, int game, byte result, int count, then count
+ *               times int index (row * width + col), byte info
+ *     ENDED     byte 3, int game
+ *     ERROR     byte 4, then a UTF-8 message
+ *
+ * where the result is the ordinal of Grid.Result and each info is a
+ * CellChanges code, so a whole cascade comes back as one DIFF message.
+ * Games are made with safeFirstClick and seeded with the given seed
+ * (see Grid.getSeed), so a game can be reproduced from its seed and 
+ * moves.
+ * Ended games go back to a GridPool, so new games of the same size 
+ * reuse their grids. A game is ended by END_GAME, or when the 
+ * connection that made it closes.
+ * Every answer to the requests read from a connection at once is sent
+ * back in as few writes as the socket allows. Once more than 
+ * MAX_PENDING bytes of answers are waiting for a client to read them,
+ * the server stops answering and reading its requests until they have
+ * been sent, so a client that sends moves but never reads cannot make
+ * the server buffer answers without bound.
+ *
+ * It can be run from the command line as
+ *
+ *     java edu.jsu.mcis.GameServer [port]
+ *
+ * which serves on the loopback address.
+ */
+public class GameServer implements Runnable, Closeable {
+    public static final int NEW_GAME = 1;
+    public static final int MOVE = 2;
+    public static final int END_GAME = 3;
+
+    public static final int GAME = 1;
+    public static final int DIFF = 2;
+    public static final int ENDED = 3;
+    public static final int ERROR = 4;
+
+    /**
+     * Games larger than this many locations are refused.
+     */
+    public static final int MAX_CELLS = 1 << 20;
+
+    /**
+     * Requests from a connection are not read or answered while more 
+     * than this many bytes of answers wait to be sent to it.
+     */
+    public static final int MAX_PENDING = 1 << 20;
+
+    private static final int MAX_FRAME = 1 << 16;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Map<Integer, Game> games = new HashMap<>();
+    private final GridPool pool = new GridPool();
+    private int nextGame = 1;
+    private volatile boolean running = true;
+
+    /**
+     * This constructor opens the server socket. Serving starts when
+     * run is called (see start).
+     *
+     * @param address the address to listen on (port 0 picks a free one)
+     * @throws IOException if the socket cannot be opened
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.bind(address, 1024);
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * This method returns the number of games being played. It is only
+     * exact when called from the server thread or after it stops.
+     *
+     * @return the number of games
+     */
+    public int getGameCount() {
+        return games.size();
+    }
+
+    /**
+     * This method runs run on a new daemon thread.
+     *
+     * @return the server thread
+     */
+    public Thread start() {
+		Thread thread = new Thread(this, "GameServer-" + getPort());
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+    }
+
+    /**
+     * This method serves clients until the server is closed.
+     */
+    public void run() {
+		try {
+			while(running) {
+				selector.select();
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while(keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					try {
+						if(!key.isValid()) continue;
+						if(key.isAcceptable()) accept();
+						if(key.isValid() && key.isReadable()) read(key);
+						if(key.isValid() && key.isWritable()) write(key);
+					}
+					catch(IOException e) {
+						disconnect(key);
+					}
+				}
+			}
+		}
+		catch(IOException | ClosedSelectorException e) {
+			running = false;
+		}
+		finally {
+			for(SelectionKey key : selector.keys()) {
+				try {
+					key.channel().close();
+				}
+				catch(IOException e) {}
+			}
+			try {
+				selector.close();
+			}
+			catch(IOException e) {}
+		}
+    }
+
+    /**
+     * This method stops the server; the server thread closes every
+     * connection on its way out.
+     */
+    public void close() {
+		running = false;
+		selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if(channel == null) return;
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		channel.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    /**
+     * This method closes a connection and ends every game it made.
+     */
+    private void disconnect(SelectionKey key) {
+		Connection connection = (Connection)key.attachment();
+		if(connection != null) {
+			for(int id : connection.games) {
+				pool.release(games.remove(id).grid);
+			}
+			connection.games.clear();
+		}
+		key.cancel();
+		try {
+			key.channel().close();
+		}
+		catch(IOException e) {}
+    }
+
+    /**
+     * This method reads what the client has sent, then answers and 
+     * sends as write does.
+     */
+    private void read(SelectionKey key) throws IOException {
+		Connection connection = (Connection)key.attachment();
+		SocketChannel channel = (SocketChannel)key.channel();
+		if(channel.read(connection.in) < 0) {
+			disconnect(key);
+			return;
+		}
+		write(key);
+    }
+
+    /**
+     * This method answers the whole requests read from the client, 
+     * and writes as much of the answers as the socket takes, until 
+     * every request is answered or the socket is full. It waits to be
+     * told it can write more if some answers are left, and only reads
+     * more requests once the answers left fit in MAX_PENDING bytes and
+     * every request read so far is answered.
+     */
+    private void write(SelectionKey key) throws IOException {
+		Connection connection = (Connection)key.attachment();
+		SocketChannel channel = (SocketChannel)key.channel();
+		boolean waiting;
+		boolean pending;
+		do {
+			waiting = answer(connection);
+			ByteBuffer out = connection.out;
+			out.flip();
+			channel.write(out);
+			pending = out.hasRemaining();
+			out.compact();
+		} while(waiting && !pending);
+		int ops = (waiting || connection.out.position() > MAX_PENDING) ? 0 : SelectionKey.OP_READ;
+		key.interestOps(pending ? ops | SelectionKey.OP_WRITE : ops);
+    }
+
+    /**
+     * This method answers the whole requests in the input buffer of a
+     * connection, in order, until more than MAX_PENDING bytes of 
+     * answers are waiting to be sent.
+     *
+     * @return whether whole requests are left to answer
+     * @throws IOException if a frame has an illegal length
+     */
+    private boolean answer(Connection connection) throws IOException {
+		ByteBuffer in = connection.in;
+		in.flip();
+		boolean waiting = false;
+		while(in.remaining() >= 4) {
+			int length = in.getInt(in.position());
+			if(length < 1 || length > MAX_FRAME - 4) throw new IOException("Illegal frame length " + length);
+			if(in.remaining() < 4 + length) break;
+			if(connection.out.position() > MAX_PENDING) {
+				waiting = true;
+				break;
+			}
+			in.position(in.position() + 4);
+			int end = in.position() + length;
+			handle(in, end, connection);
+			in.position(end);
+		}
+		in.compact();
+		return waiting;
+    }
+
+    /**
+     * This method answers one request, which runs from the position of
+     * `in` to `end`.
+     */
+    private void handle(ByteBuffer in, int end, Connection connection) {
+		int type = in.get();
+		try {
+			if(type == NEW_GAME && end - in.position() == 20) {
+				int width = in.getInt();
+				int height = in.getInt();
+				int mines = in.getInt();
+				long seed = in.getLong();
+				if(width < 1 || height < 1 || (long)width * height > MAX_CELLS) {
+					throw new IllegalArgumentException("Illegal grid size " + width + "x" + height);
+				}
+				Game game = new Game(pool.acquire(width, height, mines, seed, true), connection);
+				int id = nextGame++;
+				games.put(id, game);
+				connection.games.add(id);
+				connection.reserve(5).put((byte)GAME).putInt(id);
+			}
+			else if(type == MOVE && end - in.position() == 13) {
+				int id = in.getInt();
+				int action = in.get();
+				int row = in.getInt();
+				int col = in.getInt();
+				Game game = game(id);
+				game.changes = null;
+				switch(action) {
+					case MoveJournal.UNCOVER: game.grid.uncoverAt(row, col); break;
+					case MoveJournal.FLAG: game.grid.placeFlagAt(row, col); break;
+					case MoveJournal.UNFLAG: game.grid.removeFlagAt(row, col); break;
+					case MoveJournal.CHORD: game.grid.chordAt(row, col); break;
+					default: throw new IllegalArgumentException("Illegal action " + action);
+				}
+				CellChanges changes = game.changes;
+				int count = (changes == null) ? 0 : changes.size();
+				ByteBuffer out = connection.reserve(10 + 5 * count);
+				out.put((byte)DIFF).putInt(id).put((byte)game.grid.getResult().ordinal()).putInt(count);
+				for(int i = 0; i < count; i++) {
+					out.putInt(changes.getIndex(i)).put((byte)changes.getInfo(i));
+				}
+			}
+			else if(type == END_GAME && end - in.position() == 4) {
+				int id = in.getInt();
+				Game game = game(id);
+				pool.release(game.grid);
+				games.remove(id);
+				game.owner.games.remove(id);
+				connection.reserve(5).put((byte)ENDED).putInt(id);
+			}
+			else {
+				throw new IllegalArgumentException("Illegal request " + type);
+			}
+		}
+		catch(IllegalArgumentException e) {
+			byte[] message = String.valueOf(e.getMessage()).getBytes(UTF8);
+			connection.reserve(1 + message.length).put((byte)ERROR).put(message);
+		}
+    }
+
+    private Game game(int id) {
+		Game game = games.get(id);
+		if(game == null) throw new IllegalArgumentException("No game " + id);
+		return game;
+    }
+
+    /**
+     * This class is a game on the server. It keeps the batch of
+     * changes from the last move so it can be sent back, and the
+     * connection that made it.
+     */
+    private static class Game implements CellChangeListener {
+        final Grid grid;
+        final Connection owner;
+        CellChanges changes;
+
+        Game(Grid grid, Connection owner) {
+			this.grid = grid;
+			this.owner = owner;
+			grid.addChangeListener(this);
+        }
+
+        public void cellsChanged(Grid grid, CellChanges changes) {
+			this.changes = changes;
+        }
+        
+        public void gridReset(Grid grid) {}
+    }
+
+    /**
+     * This class holds the buffers of one client connection and the
+     * ids of the games it made that have not ended.
+     */
+    private static class Connection {
+        final Set<Integer> games = new HashSet<>();
+        final ByteBuffer in = ByteBuffer.allocateDirect(MAX_FRAME);
+        ByteBuffer out = ByteBuffer.allocateDirect(MAX_FRAME);
+
+        /**
+         * This method writes the length of a message of `size` bytes to
+         * the output buffer, growing the buffer if needed, and returns
+         * the buffer for the message itself.
+         */
+        ByteBuffer reserve(int size) {
+			if(out.remaining() < 4 + size) {
+				ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(out.capacity() * 2, out.position() + 4 + size));
+				out.flip();
+				bigger.put(out);
+				out = bigger;
+			}
+			return out.putInt(size);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+		int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7070;
+		GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		System.out.println("serving on port " + server.getPort());
+		server.run();
+    }
+}
@@ -0,0 +1,68 @@
+package edu.jsu.mcis;
+
+
+/**
+ * This class holds the outcome of a NoGuessGenerator search: the grid
+ * it produced, whether the solver could finish that grid without
+ * guessing, how many candidate layouts were tried, and how long the
+ * search took.
+ */
+public class GenerationResult {
+    private final Grid grid;
+    private final boolean noGuess;
+    private final long candidate;
+    private final long attempts;
+    private final long elapsedNanos;
+
+    public GenerationResult(Grid grid, boolean noGuess, long candidate, long attempts, long elapsedNanos) {
+		this.grid = grid;
+		this.noGuess = noGuess;
+		this.candidate = candidate;
+		this.attempts = attempts;
+		this.elapsedNanos = elapsedNanos;
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * This method returns false if the search timed out and the grid
+     * has an ordinary random layout instead.
+     *
+     * @return whether the grid can be finished without guessing
+     */
+    public boolean isNoGuess() {
+        return noGuess;
+    }
+
+    /**
+     * This method returns the number of the candidate layout that was
+     * chosen (candidate k is seeded with SplitMix.derive(seed, k)).
+     *
+     * @return the number of the chosen candidate
+     */
+    public long getCandidate() {
+        return candidate;
+    }
+
+    /**
+     * This method returns the number of candidate layouts that were
+     * generated and solved, on all threads together.
+     *
+     * @return the number of candidates tried
+     */
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public String toString() {
+        return String.format("%s after %d attempts (candidate %d), %.3f s",
+                             noGuess ? "no-guess board" : "timed out, random board",
+                             attempts, candidate, elapsedNanos / 1e9);
+    }
+}
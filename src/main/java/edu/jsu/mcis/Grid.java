@@ -1,33 +1,82 @@
 package edu.jsu.mcis;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * This class represents the grid in Minesweeper. It is composed of a
- * two-dimensional array of Location objects. It must initialize those 
- * locations with the correct hints and mine placement (which means it
- * also needs to know how many mines to place). It places mines 
- * randomly using the specified pseudorandom number generator.
+ * Board that packs every location into a single byte (see Board for
+ * the layout), so even very large grids are one flat array rather
+ * than one object per location. It must initialize those locations
+ * with the correct hints and mine placement (which means it also 
+ * needs to know how many mines to place). It places mines randomly
+ * using the specified pseudorandom number generator. The Location
+ * objects returned by getLocation are lightweight views of the board.
  *
- * This class also implements a part of the Observer pattern. It is
- * the Observable component. That means that other objects can 
- * register themselves as observers of the Grid. It will then update
- * all observers whenever "something interesting" happens (e.g., 
- * when flags are placed or locations are uncovered). It communicates
- * with the observers by means of strings of the following form:
+ * Other objects can watch the Grid whenever "something interesting" 
+ * happens (e.g., when flags are placed or locations are uncovered)
+ * through three channels:
+ *
+ *     GridListener        one typed call per event, with primitive
+ *                         arguments, made while the action runs
+ *     CellChangeListener  one CellChanges batch per action (an 
+ *                         uncover with its whole cascade, or a flag
+ *                         placement or removal), and one call when
+ *                         the grid is reset
+ *     Observer            one string per event, as described below
+ *
+ * The Observer channel is kept as a compatibility bridge for older
+ * code, since Grid is still the Observable component of the Observer
+ * pattern. It communicates with the observers by means of strings of
+ * the following form:
  * 
  *     row:col:info
  *
  * Possible values for `info` are `flag`, `unflag`, `mine`, and an 
  * integer value in the range [0, 8] representing the hint at the 
- * (`row`, `col`) location.
+ * (`row`, `col`) location. These strings are produced from the same
+ * batch that the CellChangeListeners receive, and only when observers
+ * are registered, so the other channels never pay for them.
+ *
+ * When metrics are on (see Metrics), each grid records its cascade 
+ * sizes and how long its uncovers, resets, generation, and 
+ * notifications take, under names that include its size.
  */
 public class Grid extends Observable {
     public enum Result {NONE, WIN, LOSE};
     
-    private Location[][] location;
+    /**
+     * Grids with at least this many locations are cleared and generated
+     * in parallel, tile by tile, on the common ForkJoinPool (see 
+     * TiledLayout).
+     */
+    static final int PARALLEL_CELLS = 1 << 20;
+    
+    private static final CellChangeListener[] NO_CHANGE_LISTENERS = new CellChangeListener[0];
+    private static final GridListener[] NO_LISTENERS = new GridListener[0];
+    
+    private Board board;
     private int mines;
     private Random random;
+    private final SplitMix mixer = new SplitMix(0);
+    private long seed;
+    private boolean seeded;
+    private int[] worklist = new int[64];
+    private CellChanges changes;
+    private CellChangeListener[] changeListeners = NO_CHANGE_LISTENERS;
+    private GridListener[] listeners = NO_LISTENERS;
+    private boolean recording;
+    private boolean debug = Boolean.getBoolean("minesweeper.debug");
+    private boolean lazy;
+    private boolean generated;
+    private int[] excluded = new int[9];
+    private int excludedCount;
+    private LatencyHistogram cascadeSizes;
+    private LatencyHistogram uncoverTimes;
+    private LatencyHistogram resetTimes;
+    private LatencyHistogram generateTimes;
+    private LatencyHistogram notifyTimes;
+    private LatencyHistogram fanOut;
 
     public Grid() {
 		this(8,8,10);
@@ -48,17 +97,138 @@ public class Grid extends Observable {
      * @param height the height of the grid (number of rows)
      * @param mines the number of mines
      * @param random the pseudorandom number generator
+     * @throws IllegalArgumentException if the grid would have no 
+     *         locations, more than Integer.MAX_VALUE locations, or 
+     *         fewer locations than mines
      */
     public Grid(int width, int height, int mines, Random random) {
+		this(width, height, mines, random, false);
+    }
+    
+    /**
+     * This constructor works like the one above, except that when
+     * `safeFirstClick` is true the mines and hints are not generated
+     * until the first call to uncoverAt. That call generates them 
+     * around the location being uncovered, so that neither it nor any
+     * of its neighbors contains a mine (when the grid has enough room
+     * to leave them out), and only then uncovers it. Until then every
+     * location is covered, has no mine, and has a hint of 0.
+     * 
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param random the pseudorandom number generator
+     * @param safeFirstClick whether to wait for the first uncover
+     *        to generate the mines and hints
+     * @throws IllegalArgumentException if the grid would have no 
+     *         locations, more than Integer.MAX_VALUE locations, or 
+     *         fewer locations than mines
+     */
+    public Grid(int width, int height, int mines, Random random, boolean safeFirstClick) {
+		this(width, height, mines, random, 0, safeFirstClick);
+    }
+    
+    /**
+     * This constructor initializes the grid like the ones above, except
+     * that it is seeded: its mines come from a SplitMix generator 
+     * started from `seed`, and not from a shared Random. The layout of
+     * every game depends only on its seed (see getSeed) and the size of
+     * the grid, so any board can be rebuilt from that one number.
+     * 
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param seed the seed of the first game
+     * @throws IllegalArgumentException if the grid would have no 
+     *         locations, more than Integer.MAX_VALUE locations, or 
+     *         fewer locations than mines
+     */
+    public Grid(int width, int height, int mines, long seed) {
+		this(width, height, mines, seed, false);
+    }
+    
+    /**
+     * This constructor works like the one above, except that when
+     * `safeFirstClick` is true the mines and hints wait for the first
+     * uncover (see the constructor that takes a Random). The same seed
+     * and the same first uncover always give the same board.
+     * 
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param seed the seed of the first game
+     * @param safeFirstClick whether to wait for the first uncover
+     *        to generate the mines and hints
+     * @throws IllegalArgumentException if the grid would have no 
+     *         locations, more than Integer.MAX_VALUE locations, or 
+     *         fewer locations than mines
+     */
+    public Grid(int width, int height, int mines, long seed, boolean safeFirstClick) {
+		this(width, height, mines, null, seed, safeFirstClick);
+    }
+    
+    /**
+     * This constructor is the one every public constructor uses. The
+     * grid is seeded with `seed` if `random` is null.
+     */
+    private Grid(int width, int height, int mines, Random random, long seed, boolean safeFirstClick) {
+		if(width < 1 || height < 1 || (long)width * height > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Illegal grid size " + width + "x" + height);
+		}
+		if(mines < 0 || mines > width * height){
+			throw new IllegalArgumentException("Cannot place " + mines + " mines on a " + width + "x" + height + " grid");
+		}
 		this.random = random;
+		this.seed = seed;
+		this.seeded = (random == null);
 		this.mines = mines;
-		location = new Location[height][width];					
-		for(int i = 0; i < getHeight(); i++){
-			for(int j = 0; j < getWidth(); j++){
-				location[i][j] = new Location();				//Location class comes initialized to COVERED dont have to cover it
-			}
-		}
-		reset();
+		this.lazy = safeFirstClick;
+		board = new Board(width, height);				//Board cells come initialized to COVERED dont have to cover them
+		changes = new CellChanges(width);
+		if(Metrics.ENABLED) initMetrics();
+		layOut();
+    }
+    
+    /**
+     * This constructor wraps a board that already holds a game, as
+     * read by GridIO, without generating anything. The running counts
+     * of the board must already be correct.
+     * 
+     * @param board the board
+     * @param mines the number of mines
+     * @param random the pseudorandom number generator for later resets,
+     *        or null if the grid is seeded
+     * @param seed the seed of the game on the board, if it is seeded
+     * @param safeFirstClick whether later resets wait for the first uncover
+     * @param generated whether the board already holds its mines and hints
+     */
+    Grid(Board board, int mines, Random random, long seed, boolean safeFirstClick, boolean generated) {
+		this.board = board;
+		this.mines = mines;
+		this.random = random;
+		this.seed = seed;
+		this.seeded = (random == null);
+		this.lazy = safeFirstClick;
+		this.generated = generated;
+		changes = new CellChanges(board.getWidth());
+		if(Metrics.ENABLED) initMetrics();
+    }
+    
+    /**
+     * This is a private convenience method that looks up the metrics
+     * this grid keeps (see Metrics), named with its size. Cascade 
+     * sizes are in locations, fan-out in listeners and observers, and
+     * everything else in nanoseconds.
+     */
+    private void initMetrics() {
+		int width = board.getWidth();
+		int height = board.getHeight();
+		cascadeSizes = Metrics.histogram(Metrics.sized("grid.uncover.cascade", width, height));
+		uncoverTimes = Metrics.histogram(Metrics.sized("grid.uncover.nanos", width, height));
+		resetTimes = Metrics.histogram(Metrics.sized("grid.reset.nanos", width, height));
+		generateTimes = Metrics.histogram(Metrics.sized("grid.generate.nanos", width, height));
+		notifyTimes = Metrics.histogram(Metrics.sized("grid.notify.nanos", width, height));
+		fanOut = Metrics.histogram("grid.notify.fanout");
     }
     
     /**
@@ -66,79 +236,252 @@ public class Grid extends Observable {
      * randomly reinitialized condition. All locations should be 
      * covered, and all mines should be placed randomly such that all 
      * mines are in unique locations. Hints should be calculated after 
-     * mines are placed.
+     * mines are placed. A grid made with safeFirstClick only clears
+     * its locations here and waits for the next uncover to generate.
+     *
+     * A seeded grid moves on to the next seed, SplitMix.derive(s, 0) 
+     * for a game with seed s, so a grid made with the seed of any game
+     * goes through the same games after it.
      */
     public void reset() {										//THIS IS FAILING TEST DUE TO WRONG HINT IN LOCATION,CHECKHINT ALGORYTHMS
-		for(int i = 0; i < getHeight(); i++){
-			for(int j = 0; j < getWidth(); j++){
-				location[i][j].setType(Location.Type.COVERED);
-				location[i][j].setMine(false);
-				location[i][j].setHint(0);
+		if(seeded) seed = SplitMix.derive(seed, 0);
+		layOut();
+	}
+    
+    /**
+     * This method resets the grid to a game with the specified seed, 
+     * laid out exactly as a new grid of the same size made with that
+     * seed would be. A grid made with a Random is seeded from then on.
+     * It allocates nothing (for grids smaller than PARALLEL_CELLS), 
+     * which is what lets a GridPool recycle grids.
+     * 
+     * @param seed the seed of the new game
+     */
+    public void reset(long seed) {
+		this.random = null;
+		this.seed = seed;
+		this.seeded = true;
+		layOut();
+    }
+    
+    /**
+     * This method returns whether the grid is seeded, that is, made 
+     * with a seed rather than a Random, or reset with a seed since.
+     * 
+     * @return whether getSeed can be called
+     */
+    public boolean hasSeed() {
+        return seeded;
+    }
+    
+    /**
+     * This method returns the seed of the current game. A new grid of
+     * the same size made with this seed (and given the same first 
+     * uncover, if it waits for one) has the same mines and hints.
+     * 
+     * @return the seed of the current game
+     * @throws IllegalStateException if the grid is not seeded
+     */
+    public long getSeed() {
+		if(!seeded) throw new IllegalStateException("The grid was made with a Random and has no seed");
+        return seed;
+    }
+    
+    /**
+     * This is a private convenience method that clears the grid and,
+     * unless it waits for the first uncover, generates the game. Then
+     * it tells the change listeners that the grid was reset.
+     */
+    private void layOut() {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		if(board.size() >= PARALLEL_CELLS) TiledLayout.clear(ForkJoinPool.commonPool(), board);
+		else board.clear();
+		generated = false;
+		if(!lazy) generate(-1, -1);
+		if(Metrics.ENABLED) resetTimes.record(System.nanoTime() - start);
+		CellChangeListener[] list = changeListeners;
+		for(int i = 0; i < list.length; i++){
+			list[i].gridReset(this);
+		}
+    }
+    
+    /**
+     * This method unregisters every listener and observer, so that a
+     * recycled grid does not report to the users of its last game.
+     */
+    void removeAllListeners() {
+		changeListeners = NO_CHANGE_LISTENERS;
+		listeners = NO_LISTENERS;
+		deleteObservers();
+    }
+    
+    /**
+     * This method returns true once the mines and hints have been 
+     * generated. It is only false for a grid made with safeFirstClick
+     * that has not been uncovered since it was created or reset.
+     * 
+     * @return whether the mines and hints have been generated
+     */
+    public boolean isGenerated() {
+        return generated;
+    }
+    
+    /**
+     * This method returns true if the grid was made with safeFirstClick.
+     * 
+     * @return whether the grid generates on the first uncover
+     */
+    public boolean isSafeFirstClick() {
+        return lazy;
+    }
+    
+    Board getBoard() {
+        return board;
+    }
+
+    /**
+     * This method copies the mines, uncovered locations, and flags of
+     * the grid into a new Bitboard. The grid keeps only its bytes, so
+     * moves pay nothing for the bitsets, and later changes to the grid
+     * are not seen by the copy. A safeFirstClick grid has no mines 
+     * until it is generated (see isGenerated).
+     *
+     * @return a snapshot of the grid as bitsets
+     */
+    public Bitboard getBitboard() {
+        return Bitboard.of(board);
+    }
+
+    /**
+     * This method generates the mines and hints around (row, col) now,
+     * as the first uncover there would, but without uncovering it. It
+     * does nothing if they have already been generated. It lets a
+     * generator fix the layout of a safeFirstClick grid ahead of time
+     * (see NoGuessGenerator).
+     *
+     * @param row the row of the first uncover
+     * @param col the column of the first uncover
+     */
+    void generateAt(int row, int col) {
+		if(!generated) generate(row, col);
+    }
+
+    /**
+     * This method places the mines and hints. If (row, col) is a legal
+     * index, the mines are kept off that location and its neighbors 
+     * if there is room, or else just off that location if there is 
+     * room for that.
+     *
+     * A seeded grid draws its mines from a SplitMix started from the
+     * seed of the game. Grids with at least PARALLEL_CELLS locations 
+     * are laid out by a TiledLayout whose seed is the seed of the game
+     * (or one long from the Random), so their layout is fixed whatever
+     * the number of threads.
+     * 
+     * @param row the row of the first uncover, or -1
+     * @param col the column of the first uncover, or -1
+     */
+    private void generate(int row, int col) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		excludedCount = 0;
+		if(isLegalIndex(row, col)){
+			int rowEnd = Math.min(row + 1, getHeight() - 1);
+			int colEnd = Math.min(col + 1, getWidth() - 1);
+			for(int i = Math.max(row - 1, 0); i <= rowEnd; i++){
+				for(int j = Math.max(col - 1, 0); j <= colEnd; j++){
+					excluded[excludedCount++] = board.index(i, j);
+				}
+			}
+			if(mines > board.size() - excludedCount){
+				excluded[0] = board.index(row, col);
+				excludedCount = (mines < board.size()) ? 1 : 0;
 			}
 		}
 		placeMines();
-		placeHints(); 
-	}
+		placeHints();
+		generated = true;
+		if(Metrics.ENABLED) generateTimes.record(System.nanoTime() - start);
+    }
     
     /**
      * This method should place all mines randomly in unique 
      * locations.
+     *
+     * It uses Floyd's sampling algorithm over the location indices 
+     * (row * width + col), so it draws exactly one number per mine at
+     * any density instead of retrying occupied locations. With n 
+     * locations, the k-th draw (counting from 0) is 
+     * random.nextInt(n - mines + k + 1); the mine goes at that index
+     * unless it is already taken, in which case it goes at index 
+     * n - mines + k. The same Random (or seed) therefore always 
+     * produces the same layout. Locations excluded around a first 
+     * uncover are skipped when counting indices, and are not counted
+     * in n. Grids with at least PARALLEL_CELLS locations place their
+     * mines tile by tile instead (see TiledLayout).
      */
     private void placeMines() {
-		int mineCount = 0;
-		while(mineCount < mines){						//While loop instead of for.
-			int x = random.nextInt(getHeight());
-			int y = random.nextInt(getWidth());
-			if(!(location[x][y].hasMine())){
-				location[x][y].setMine(true);
-				mineCount++;
-			} 
+		if(board.size() >= PARALLEL_CELLS){
+			TiledLayout.placeMines(ForkJoinPool.commonPool(), board, mines, seeded ? seed : random.nextLong(), excluded, excludedCount, TiledLayout.TILE_ROWS);
+			return;
+		}
+		if(seeded) mixer.setSeed(seed);
+		int n = board.size() - excludedCount;
+		for(int j = n - mines; j < n; j++){
+			int t = availableIndex(nextInt(j + 1));
+			board.setMine(board.hasMine(t) ? availableIndex(j) : t, true);
 		}
     }
     
     /**
-     * This method should set the hints for each location based on the
-     * adjacent mines.
+     * This is a private convenience method that draws the next int in
+     * [0, bound) from the Random, or from the SplitMix if the grid is 
+     * seeded.
      */
-    private void placeHints() {
-		for(int i = 0; i < getHeight(); i++){
-			for(int j = 0; j < getWidth() ; j++){
-				List<Location> neighbors = getNeighbors(i, j);
-				location[i][j].setHint(calculateHint(neighbors));
-			}
+    private int nextInt(int bound) {
+        return seeded ? mixer.nextInt(bound) : random.nextInt(bound);
+    }
+    
+    /**
+     * This method returns the index of the k-th location (counting 
+     * from 0) that is not excluded from mine placement. The excluded
+     * indices are in ascending order, so each one at or before the 
+     * result pushes it one place further.
+     * 
+     * @param k the position among the locations that are not excluded
+     * @return the index of that location in the board
+     */
+    private int availableIndex(int k) {
+		for(int i = 0; i < excludedCount && excluded[i] <= k; i++){
+			k++;
 		}
+		return k;
     }
     
     /**
-     * This method returns a list of the adjacent neighbors of the 
-     * (row, col) location. This list could contain the following 
-     * numbers of elements:
-     *     0 => if (row, col) is not a legal index
-     *     3 => if (row, col) is a corner
-     *     5 => if (row, col) is along a side
-     *     8 => if (row, col) is an interior location
+     * This method runs one phase of generate on its own: placing the
+     * mines, or placing their hints. It is package-private so that 
+     * GridBenchmark can time each phase the way generate runs it, the
+     * mines on a cleared safeFirstClick grid and the hints on one 
+     * whose mines were just placed.
      *
-     * @param row
-     * @param col
-     * @return a list of Location objects representing the adjacent neighbors of (row, col)
-     */
-    private List<Location> getNeighbors(int row, int col) {
-        List<Location> neighbors = new ArrayList<>();
-        if(isLegalIndex(row, col)){
-			for(int i = -1; i <= 1; i++){
-				for(int j = -1; j <= 1; j++){
-					int r = row + i;
-					int c = col + j;
-					if(isLegalIndex(r, c)){			
-						if(r != row || c != col){
-							neighbors.add(location[r][c]);
-						}
-					}
-				}
-			}
-        }
-		return neighbors;
-	}
+     * @param hints whether to place the hints rather than the mines
+     */
+    void generatePhase(boolean hints) {
+		if(hints) placeHints();
+		else placeMines();
+    }
+    
+    /**
+     * This method should set the hints for each location based on the
+     * adjacent mines. It adds one to the hint of each of the 8 
+     * neighbors of every mine, in one pass over the board, without
+     * allocating anything. Grids with at least PARALLEL_CELLS 
+     * locations count the hints of their rows in parallel instead.
+     */
+    private void placeHints() {
+		if(board.size() >= PARALLEL_CELLS) TiledLayout.placeHints(ForkJoinPool.commonPool(), board);
+		else board.addMineHints();
+    }
     
     /**
      * This method returns true if (row, col) is a legal index.
@@ -151,29 +494,12 @@ public class Grid extends Observable {
         return ((row >= 0 && row < getHeight()) && (col >= 0 && col < getWidth()));
     }
     
-    /**
-     * This method returns an integer representing the number of mines
-     * contained in the list of neighboring locations.
-     * 
-     * @param neighbors the list of neighboring Locations
-     * @return the hint associated with the list of neighbors
-     */
-    private int calculateHint(List<Location> neighbors) {
-        int hint = 0;
-		for(int i=0; i < neighbors.size(); i++){			//had to read instructions lol
-			if(neighbors.get(i).hasMine()){
-				hint++;
-			}
-		}
-        return hint;
-    }
-    
     public int getWidth() {
-        return location[0].length;
+        return board.getWidth();
     }
     
     public int getHeight() {
-        return location.length;
+        return board.getHeight();
     }
     
     public int getMines() {
@@ -184,30 +510,65 @@ public class Grid extends Observable {
      * This method returns Result.LOSE if a mine in uncovered. It 
      * returns Result.WIN if all non-mine locations are uncovered.
      * It returns Result.NONE in all other cases.
+     *
+     * The answer comes from the running counts kept by the board, so
+     * this method takes constant time. In debug mode (see setDebug)
+     * the counts are first checked against a full scan of the grid.
      * 
      * @return the state of the Minesweeper game outcome
+     * @throws IllegalStateException in debug mode, if the counts are wrong
      */
     public Result getResult() {
-        long unCoveredCount = 0;
-		for(int i = 0; i < getHeight(); i++){
-			for(int j = 0; j < getWidth(); j++){
-				if((location[i][j].getType() == Location.Type.UNCOVERED) && (location[i][j].hasMine())) return Result.LOSE;
-				if((location[i][j].getType() == Location.Type.UNCOVERED) && (!(location[i][j].hasMine()))) unCoveredCount++;
-			}
-		}
-		if((unCoveredCount + getMines()) == (getHeight() * getWidth())) return Result.WIN;  
+		if(debug) board.verifyCounts();
+		if(board.getUncoveredMines() > 0) return Result.LOSE;
+		if(((long)board.getUncoveredSafe() + getMines()) == board.size()) return Result.WIN;  
 		else return Result.NONE;
     }
     
     /**
-     * This method returns the location at (row, col).
+     * This method returns the number of locations currently uncovered,
+     * including an uncovered mine.
+     * 
+     * @return the number of uncovered locations
+     */
+    public int getUncoveredCount() {
+        return board.getUncoveredSafe() + board.getUncoveredMines();
+    }
+    
+    /**
+     * This method returns the number of flags currently on the grid.
+     * 
+     * @return the number of flagged locations
+     */
+    public int getFlagCount() {
+        return board.getFlagged();
+    }
+    
+    /**
+     * This method turns debug mode on or off. In debug mode, every 
+     * call to getResult verifies the running counts with a full scan.
+     * Debug mode starts on if the system property minesweeper.debug 
+     * is set to true.
+     * 
+     * @param debug whether to verify the counts
+     */
+    public void setDebug(boolean debug) {
+		this.debug = debug;
+    }
+    
+    /**
+     * This method returns the location at (row, col). The location is
+     * a view of the grid, so changes made through it are changes to
+     * the grid.
      * 
      * @param row 
      * @param col 
      * @return the location at (row, col)
+     * @throws IndexOutOfBoundsException if (row, col) is not a legal index
      */
     public Location getLocation(int row, int col) {
-        return location[row][col];		
+		if(!isLegalIndex(row, col)) throw new IndexOutOfBoundsException("(" + row + ", " + col + ")");
+        return new Location(board, board.index(row, col));		
 	}
     
     /**
@@ -222,80 +583,282 @@ public class Grid extends Observable {
         return (isLegalIndex(row, col) && isFlagged(row, col));			//NO NEED FOR "ELSE RETURN FALSE", it is already going to return false if wrong.
     }
     
+    /**
+     * This method registers a listener that receives a typed call for
+     * every event on the grid.
+     * 
+     * @param listener the listener to add
+     */
+    public void addGridListener(GridListener listener) {
+		GridListener[] list = Arrays.copyOf(listeners, listeners.length + 1);
+		list[listeners.length] = listener;
+		listeners = list;
+    }
+    
+    /**
+     * This method unregisters a listener added by addGridListener.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeGridListener(GridListener listener) {
+		for(int i = 0; i < listeners.length; i++){
+			if(listeners[i] == listener){
+				GridListener[] list = new GridListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, list, 0, i);
+				System.arraycopy(listeners, i + 1, list, i, list.length - i);
+				listeners = list;
+				return;
+			}
+		}
+    }
+    
+    /**
+     * This method registers a listener that receives one batch of
+     * changes per action on the grid.
+     * 
+     * @param listener the listener to add
+     */
+    public void addChangeListener(CellChangeListener listener) {
+		CellChangeListener[] list = Arrays.copyOf(changeListeners, changeListeners.length + 1);
+		list[changeListeners.length] = listener;
+		changeListeners = list;
+    }
+    
+    /**
+     * This method unregisters a listener added by addChangeListener.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeChangeListener(CellChangeListener listener) {
+		for(int i = 0; i < changeListeners.length; i++){
+			if(changeListeners[i] == listener){
+				CellChangeListener[] list = new CellChangeListener[changeListeners.length - 1];
+				System.arraycopy(changeListeners, 0, list, 0, i);
+				System.arraycopy(changeListeners, i + 1, list, i, list.length - i);
+				changeListeners = list;
+				return;
+			}
+		}
+    }
+    
+    /**
+     * This method starts a new batch of changes. Changes are only
+     * recorded if someone is listening for them.
+     */
+    private void beginChanges() {
+		changes.clear();
+		recording = changeListeners.length > 0 || countObservers() > 0;
+    }
+    
+    /**
+     * This method reports one event to the typed listeners right away
+     * and adds it to the current batch if the batch is being recorded.
+     * 
+     * @param index the index of the location in the board
+     * @param info the hint, or CellChanges.MINE, FLAG, or UNFLAG
+     */
+    private void record(int index, int info) {
+		if(recording) changes.add(index, info);
+		GridListener[] list = listeners;
+		if(list.length > 0){
+			int row = index / getWidth();
+			int col = index - row * getWidth();
+			for(int i = 0; i < list.length; i++){
+				switch(info){
+					case CellChanges.MINE: list[i].onMine(row, col); break;
+					case CellChanges.FLAG: list[i].onFlag(row, col); break;
+					case CellChanges.UNFLAG: list[i].onUnflag(row, col); break;
+					default: list[i].onReveal(row, col, info);
+				}
+			}
+		}
+    }
+    
+    /**
+     * This method delivers the current batch of changes, if it is not
+     * empty, to every change listener and then, one message per 
+     * location, to every observer.
+     */
+    private void fireChanges() {
+		if(changes.size() == 0) return;
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		CellChangeListener[] list = changeListeners;
+		for(int i = 0; i < list.length; i++){
+			list[i].cellsChanged(this, changes);
+		}
+		int observers = countObservers();
+		if(observers > 0){
+			for(int i = 0; i < changes.size(); i++){
+				setChanged();
+				notifyObservers(changes.getMessage(i));
+			}
+		}
+		if(Metrics.ENABLED){
+			notifyTimes.record(System.nanoTime() - start);
+			fanOut.record(list.length + observers);
+		}
+    }
+    
     /**
      * This method places a flag at (row, col) if that location is a
-     * legal index and if it is currently covered. It also calls the
-     * `setChanged()` method of the Observable class and notifies
-     * all observers with the message row:col:flag (using the 
-     * appropriate row and col).
+     * legal index and if it is currently covered. It notifies all
+     * listeners, and all observers with the message row:col:flag 
+     * (using the appropriate row and col).
      * 
      * @param row 
      * @param col 
      */
     public void placeFlagAt(int row, int col) {
 		if(isLegalIndex(row, col) && isCovered(row, col)){
-			getLocation(row, col).setType(Location.Type.FLAGGED);
-			setChanged();
-			notifyObservers(row + ":" + col + ":" + "flag");			//GrisTest is looking for assertEquals("6:2:flag", observer.getMessage())
+			int index = board.index(row, col);
+			beginChanges();
+			board.setType(index, Location.Type.FLAGGED);
+			record(index, CellChanges.FLAG);			//GrisTest is looking for assertEquals("6:2:flag", observer.getMessage())
+			fireChanges();
 		}    
     }
     
     /**
      * This method removes a flag at (row, col) if that location is a
-     * legal index and if it is currently flagged. It also calls the
-     * `setChanged()` method of the Observable class and notifies
-     * all observers with the message row:col:unflag (using the 
-     * appropriate row and col).
+     * legal index and if it is currently flagged. It notifies all
+     * listeners, and all observers with the message row:col:unflag 
+     * (using the appropriate row and col).
      * 
      * @param row 
      * @param col 
      */
     public void removeFlagAt(int row, int col) {
 		if(isLegalIndex(row, col) && isFlagged(row, col)){
-			location[row][col].setType(Location.Type.COVERED);
-			setChanged();
-			notifyObservers(row + ":" + col + ":" + "unflag");
+			int index = board.index(row, col);
+			beginChanges();
+			board.setType(index, Location.Type.COVERED);
+			record(index, CellChanges.UNFLAG);
+			fireChanges();
 		}
     }
     
     /**
      * This method uncovers (row, col) if that location is a
-     * legal index and if it is currently covered. It also calls the
-     * `setChanged()` method of the Observable class and notifies
-     * all observers. The message depends on whether the location 
-     * contains a mine (row:col:mine) or not (row:col:hint). 
-     * If the hint at this location is 0, then it also recursively
-     * uncovers its 8 neighbors if they are legal indices, are 
-     * currently covered, and contain no mine.
+     * legal index and if it is currently covered. It notifies the 
+     * change listeners with one batch for the whole action, and the 
+     * grid listeners and observers once per uncovered location. The message
+     * depends on whether the location contains a mine (row:col:mine)
+     * or not (row:col:hint). If the hint at this location is 0, then it also uncovers its 8
+     * neighbors if they are legal indices, are currently covered, and
+     * contain no mine, and so on for every neighbor whose hint is 0.
+     *
+     * The cascade is a flood fill over an explicit worklist of cell
+     * indices rather than a recursive call per cell, so it cannot
+     * overflow the stack on large open boards. The worklist is kept
+     * between calls and only grows when a bigger cascade needs it.
+     *
+     * On a grid made with safeFirstClick, the first uncover after 
+     * construction or reset generates the mines and hints before 
+     * uncovering anything (see isGenerated).
      * 
      * @param row 
      * @param col 
      */
     public void uncoverAt(int row, int col) {
-		int[][] offsets = {{-1, 0}, {-1, 1}, {0, 1}, {1, 1},{1, 0}, {1, -1}, {0, -1}, {-1, -1}};	
 		if(isLegalIndex(row, col) && isCovered(row, col)){										
-			location[row][col].setType(Location.Type.UNCOVERED);
-			if(location[row][col].hasMine()){
-				setChanged();
-				notifyObservers(row + ":" + col + ":" + "mine");
-				getResult();
+			long start = Metrics.ENABLED ? System.nanoTime() : 0;
+			if(!generated) generate(row, col);
+			beginChanges();
+			uncover(board.index(row, col));
+			if(Metrics.ENABLED) cascadeSizes.record(changes.size());
+			fireChanges();
+			if(Metrics.ENABLED) uncoverTimes.record(System.nanoTime() - start);
+		}	
+		
+    }
+    
+    /**
+     * This method chords at (row, col): if that location is a legal
+     * index, is uncovered, has no mine, and has exactly as many flags
+     * around it as its hint, it uncovers every covered neighbor as 
+     * uncoverAt would (cascading from any with a hint of 0). If a flag
+     * was wrong, that uncovers a mine. The whole chord is one batch of
+     * changes, however many neighbors it uncovers, so the change 
+     * listeners are notified once. Its cascade size and time are 
+     * recorded with those of uncoverAt (see Metrics).
+     * 
+     * @param row 
+     * @param col 
+     */
+    public void chordAt(int row, int col) {
+		if(!isLegalIndex(row, col)) return;
+		int index = board.index(row, col);
+		if(board.typeBits(index) != Board.UNCOVERED || board.hasMine(index)) return;
+		int rowEnd = Math.min(row + 1, getHeight() - 1);
+		int colEnd = Math.min(col + 1, getWidth() - 1);
+		int flags = 0;
+		for(int i = Math.max(row - 1, 0); i <= rowEnd; i++){
+			for(int j = Math.max(col - 1, 0); j <= colEnd; j++){
+				if(board.typeBits(board.index(i, j)) == Board.FLAGGED) flags++;
 			}
-			else{
-				setChanged();
-				notifyObservers(row + ":" + col + ":" + location[row][col].getHint());
-				if(location[row][col].getHint() == 0){
-					for(int i = 0; i < offsets.length; i++) {
-						int r = row + offsets[i][0];
-						int c = col + offsets[i][1];
-						if(isLegalIndex(r, c) && isCovered(r, c) && (!(location[r][c].hasMine()))){
-							uncoverAt(r, c);
+		}
+		if(flags != board.getHint(index)) return;
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		beginChanges();
+		for(int i = Math.max(row - 1, 0); i <= rowEnd; i++){
+			for(int j = Math.max(col - 1, 0); j <= colEnd; j++){
+				int neighbor = board.index(i, j);
+				if(board.typeBits(neighbor) == Board.COVERED) uncover(neighbor);
+			}
+		}
+		if(Metrics.ENABLED) cascadeSizes.record(changes.size());
+		fireChanges();
+		if(Metrics.ENABLED) uncoverTimes.record(System.nanoTime() - start);
+    }
+    
+    /**
+     * This method uncovers the covered location at `index`, either 
+     * setting off its mine or cascading from it, and records every
+     * location it uncovers in the current batch of changes.
+     * 
+     * @param index the index of the location in the board
+     */
+    private void uncover(int index) {
+		if(board.hasMine(index)){
+			board.setType(index, Location.Type.UNCOVERED);
+			record(index, CellChanges.MINE);
+			return;
+		}
+		int size = 0;
+		if(uncoverSafe(index)) worklist[size++] = index;
+		while(size > 0){
+			int cell = worklist[--size];
+			int r = cell / getWidth();
+			int c = cell - r * getWidth();
+			int rowEnd = Math.min(r + 1, getHeight() - 1);
+			int colEnd = Math.min(c + 1, getWidth() - 1);
+			for(int i = Math.max(r - 1, 0); i <= rowEnd; i++){
+				for(int j = Math.max(c - 1, 0); j <= colEnd; j++){
+					int neighbor = board.index(i, j);
+					if(board.isCoveredSafe(neighbor)){
+						if(uncoverSafe(neighbor)){
+							if(size == worklist.length) worklist = Arrays.copyOf(worklist, size * 2);
+							worklist[size++] = neighbor;
 						}
 					}
 				}
-				getResult();
 			}
-		}	
-		
+		}
+    }
+    
+    /**
+     * This method uncovers the mine-free location at `index` and 
+     * records its hint in the current batch of changes.
+     * 
+     * @param index the index of the location in the board
+     * @return whether the hint at the location is 0 (so the cascade 
+     *         should continue from its neighbors)
+     */
+    private boolean uncoverSafe(int index) {
+		board.setType(index, Location.Type.UNCOVERED);
+		int hint = board.getHint(index);
+		record(index, hint);
+		return hint == 0;
     }
     
     /**
@@ -306,7 +869,7 @@ public class Grid extends Observable {
      * @return whether the location at (row, col) is covered
      */
     private boolean isCovered(int row, int col) {
-        return (getLocation(row, col).getType() == Location.Type.COVERED);
+        return (board.typeBits(board.index(row, col)) == Board.COVERED);
     }
     
     /**
@@ -317,18 +880,26 @@ public class Grid extends Observable {
      * @return whether the location at (row, col) is flagged
      */
     private boolean isFlagged(int row, int col) {
-        return (getLocation(row, col).getType() == Location.Type.FLAGGED);
+        return (board.typeBits(board.index(row, col)) == Board.FLAGGED);
     }
     
+    /**
+     * This method returns the layout of the grid, one line per row, 
+     * with 9 for a mine and the hint for any other location. It fills
+     * one StringBuilder sized for the whole grid up front.
+     * 
+     * @return the layout of the grid
+     */
     public String toString() {
-    	String s = "";
-    	for(int i = 0; i < getHeight(); i++) {
-    		for(int j = 0; j < getWidth(); j++) {
-    			if(location[i][j].hasMine()) s += "9";
-    			else s += location[i][j].getHint();
-    		}
-    		s += "\n";
-    	}
-    	return s;
+		StringBuilder s = new StringBuilder(getHeight() * (getWidth() + 1));
+		for(int i = 0; i < getHeight(); i++) {
+			for(int j = 0; j < getWidth(); j++) {
+				int index = board.index(i, j);
+				if(board.hasMine(index)) s.append('9');
+				else s.append((char)('0' + board.getHint(index)));
+			}
+			s.append('\n');
+		}
+		return s.toString();
     }
 }
@@ -0,0 +1,126 @@
+package edu.jsu.mcis;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * This class saves a Grid to a file and loads it back, in a compact
+ * binary format (all numbers big-endian):
+ *
+ *     offset  size  contents
+ *          0     4  the magic number 0x4D535750 ("MSWP")
+ *          4     2  the format version (1)
+ *          6     2  flags: 1 if the mines and hints are generated,
+ *                   2 if the grid was made with safeFirstClick,
+ *                   4 if the grid is seeded
+ *          8     4  the width
+ *         12     4  the height
+ *         16     4  the number of mines
+ *         20     8  the seed of the game (0 if the grid is not seeded)
+ *         28     4  reserved (0)
+ *         32   w*h  the packed cells of the Board, row by row
+ *
+ * Each cell is the Board byte as is (hint, mine bit, and type), so a
+ * save is one bulk copy of the board into a memory-mapped file and a
+ * load is one bulk copy back out of it, with no per-location work
+ * beyond recomputing the running counts. Boards of hundreds of
+ * megabytes are written and read without passing through any
+ * intermediate stream buffers.
+ */
+public class GridIO {
+    public static final int MAGIC = 0x4D535750;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+
+    private static final int GENERATED = 1;
+    private static final int SAFE_FIRST_CLICK = 2;
+    private static final int SEEDED = 4;
+
+    private GridIO() {}
+
+    /**
+     * This method writes the grid to the file at `path`, replacing
+     * anything already there.
+     *
+     * @param grid the grid to save
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Grid grid, Path path) throws IOException {
+		byte[] cells = grid.getBoard().getCells();
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+		                                           StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putShort((short)VERSION);
+			header.putShort((short)((grid.isGenerated() ? GENERATED : 0) | (grid.isSafeFirstClick() ? SAFE_FIRST_CLICK : 0)
+			                        | (grid.hasSeed() ? SEEDED : 0)));
+			header.putInt(grid.getWidth());
+			header.putInt(grid.getHeight());
+			header.putInt(grid.getMines());
+			header.putLong(grid.hasSeed() ? grid.getSeed() : 0);
+			header.putInt(0);
+			MappedByteBuffer body = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, cells.length);
+			body.put(cells);
+		}
+    }
+
+    /**
+     * This method reads a grid from the file at `path`. The grid is in
+     * the same state as the one that was saved, with the same listeners
+     * (none) as a new grid. A seeded grid keeps its seed, so later 
+     * resets go through the same games as the saved grid would have;
+     * any other grid uses a new Random for later resets. Every cell,
+     * the number of mines, and every hint (against the mines around 
+     * it) are checked, so a corrupt or hand-edited file is refused
+     * rather than played wrongly.
+     *
+     * @param path the file to read
+     * @return the grid
+     * @throws IOException if the file cannot be read, or is not a
+     *         valid grid of a version this class knows
+     */
+    public static Grid load(Path path) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if(channel.size() < HEADER_SIZE) throw new IOException("Not a grid file: " + path);
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if(header.getInt() != MAGIC) throw new IOException("Not a grid file: " + path);
+			int version = header.getShort();
+			if(version != VERSION) throw new IOException("Unsupported grid file version " + version);
+			int flags = header.getShort();
+			int width = header.getInt();
+			int height = header.getInt();
+			int mines = header.getInt();
+			long seed = header.getLong();
+			if(width < 1 || height < 1 || (long)width * height > Integer.MAX_VALUE || mines < 0 || mines > width * height) {
+				throw new IOException("Illegal grid " + width + "x" + height + " with " + mines + " mines");
+			}
+			if(channel.size() != HEADER_SIZE + (long)width * height) {
+				throw new IOException("Grid file is " + channel.size() + " bytes, expected " + (HEADER_SIZE + (long)width * height));
+			}
+			Board board = new Board(width, height);
+			MappedByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, board.size());
+			body.get(board.getCells());
+			boolean generated = (flags & GENERATED) != 0;
+			int placed;
+			try {
+				placed = board.recount();
+			}
+			catch(IllegalStateException e) {
+				throw new IOException("Corrupt grid file: " + e.getMessage(), e);
+			}
+			if(placed != (generated ? mines : 0)) {
+				throw new IOException("Corrupt grid file: " + placed + " mines, expected " + (generated ? mines : 0));
+			}
+			int wrong = board.findWrongHint();
+			if(wrong >= 0) {
+				throw new IOException("Corrupt grid file: hint " + board.getHint(wrong) + " at index " + wrong + " does not match the mines around it");
+			}
+			boolean seeded = (flags & SEEDED) != 0;
+			return new Grid(board, mines, seeded ? null : new Random(), seed, (flags & SAFE_FIRST_CLICK) != 0, generated);
+		}
+    }
+}
@@ -0,0 +1,48 @@
+package edu.jsu.mcis;
+
+/**
+ * This interface is implemented by objects that want to watch a Grid
+ * one event at a time, such as bots and replay recorders. Each method
+ * corresponds to one of the row:col:info messages that the Grid sends
+ * to its observers, but the arguments are plain integers, so nothing 
+ * is allocated or parsed per event. The methods are called in the 
+ * order the events happen, while the grid is performing the action.
+ */
+public interface GridListener {
+    /**
+     * This method is called when a location without a mine is 
+     * uncovered (the row:col:hint message).
+     * 
+     * @param row 
+     * @param col 
+     * @param hint the hint at (row, col), in the range [0, 8]
+     */
+    void onReveal(int row, int col, int hint);
+    
+    /**
+     * This method is called when a location with a mine is uncovered
+     * (the row:col:mine message).
+     * 
+     * @param row 
+     * @param col 
+     */
+    void onMine(int row, int col);
+    
+    /**
+     * This method is called when a flag is placed (the row:col:flag 
+     * message).
+     * 
+     * @param row 
+     * @param col 
+     */
+    void onFlag(int row, int col);
+    
+    /**
+     * This method is called when a flag is removed (the row:col:unflag
+     * message).
+     * 
+     * @param row 
+     * @param col 
+     */
+    void onUnflag(int row, int col);
+}
@@ -0,0 +1,153 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class recycles Grids, so that workloads that play huge numbers
+ * of short games (a farm of bots, or a GameServer) do not make a new
+ * grid, board, and Random for every game. Grids are pooled by width,
+ * height, number of mines, and safeFirstClick. A grid taken from the
+ * pool is reset in place to a new seed (see Grid.reset), which for 
+ * boards smaller than Grid.PARALLEL_CELLS allocates nothing, so
+ * once the pool is warm, acquiring and releasing a grid produces no 
+ * garbage at all.
+ *
+ * A grid returned by acquire is laid out exactly as 
+ * `new Grid(width, height, mines, seed, safeFirstClick)`
+ * would be, whether it is new or recycled. When it is released, every
+ * listener and observer is removed from it, and the caller must not
+ * use it again. At most maxIdle grids of each kind are kept; the rest
+ * are left to the garbage collector.
+ *
+ * Every method is synchronized, so a pool can be shared by threads.
+ */
+public class GridPool {
+    private final int maxIdle;
+    private final Map<Key, ArrayDeque<Grid>> idle = new HashMap<>();
+    private final Key probe = new Key();
+    private long created;
+    private long reused;
+    
+    /**
+     * This constructor creates a pool that keeps at most 64 idle grids
+     * of each kind.
+     */
+    public GridPool() {
+		this(64);
+    }
+    
+    /**
+     * This constructor creates a pool that keeps at most `maxIdle` 
+     * idle grids of each kind.
+     * 
+     * @param maxIdle the most grids of one kind to keep
+     */
+    public GridPool(int maxIdle) {
+		if(maxIdle < 0) throw new IllegalArgumentException("Illegal maxIdle " + maxIdle);
+		this.maxIdle = maxIdle;
+    }
+    
+    /**
+     * This method returns a grid with a new game, recycled if there is
+     * an idle one of this kind.
+     * 
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param seed the seed of the game
+     * @param safeFirstClick whether to wait for the first uncover
+     *        to generate the mines and hints
+     * @return the grid
+     * @throws IllegalArgumentException as the Grid constructor does
+     */
+    public synchronized Grid acquire(int width, int height, int mines, long seed, boolean safeFirstClick) {
+		ArrayDeque<Grid> grids = idle.get(probe.set(width, height, mines, safeFirstClick));
+		Grid grid = (grids == null) ? null : grids.pollLast();
+		if(grid == null) {
+			created++;
+			return new Grid(width, height, mines, seed, safeFirstClick);
+		}
+		reused++;
+		grid.reset(seed);
+		return grid;
+    }
+    
+    /**
+     * This method gives a grid back to the pool. The grid must not be
+     * used after this.
+     * 
+     * @param grid the grid, which must have been returned by acquire
+     */
+    public synchronized void release(Grid grid) {
+		grid.removeAllListeners();
+		probe.set(grid.getWidth(), grid.getHeight(), grid.getMines(), grid.isSafeFirstClick());
+		ArrayDeque<Grid> grids = idle.get(probe);
+		if(grids == null) {
+			grids = new ArrayDeque<>();
+			idle.put(probe.copy(), grids);
+		}
+		if(grids.size() < maxIdle) grids.addLast(grid);
+    }
+    
+    /**
+     * This method returns the number of idle grids of every kind.
+     * 
+     * @return the number of idle grids
+     */
+    public synchronized int getIdleCount() {
+		int count = 0;
+		for(ArrayDeque<Grid> grids : idle.values()) count += grids.size();
+        return count;
+    }
+    
+    /**
+     * This method returns the number of grids the pool has made.
+     * 
+     * @return the number of new grids
+     */
+    public synchronized long getCreatedCount() {
+        return created;
+    }
+    
+    /**
+     * This method returns the number of times a grid was recycled.
+     * 
+     * @return the number of recycled grids
+     */
+    public synchronized long getReusedCount() {
+        return reused;
+    }
+    
+    /**
+     * This class is the kind of a grid. The pool looks grids up with
+     * one reused probe key, so that lookups allocate nothing.
+     */
+    private static class Key {
+        int width;
+        int height;
+        int mines;
+        boolean safeFirstClick;
+        
+        Key set(int width, int height, int mines, boolean safeFirstClick) {
+			this.width = width;
+			this.height = height;
+			this.mines = mines;
+			this.safeFirstClick = safeFirstClick;
+			return this;
+        }
+        
+        Key copy() {
+            return new Key().set(width, height, mines, safeFirstClick);
+        }
+        
+        public boolean equals(Object other) {
+			if(!(other instanceof Key)) return false;
+			Key key = (Key)other;
+            return width == key.width && height == key.height && mines == key.mines && safeFirstClick == key.safeFirstClick;
+        }
+        
+        public int hashCode() {
+            return ((width * 31 + height) * 31 + mines) * 2 + (safeFirstClick ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class represents an unbounded Minesweeper grid. Any (row, col)
+ * that fits in an int is a legal index, including negative ones.
+ *
+ * Whether a location holds a mine is a pure function of the seed and
+ * the location (a hash of the three compared against the density), so
+ * the grid never has to store mines or hints. It stores the rest in
+ * chunks of CHUNK_SIZE x CHUNK_SIZE locations, each a Board generated
+ * the first time one of its locations is used. Only a limited number
+ * of chunks are kept as Boards, in least recently used order. When a
+ * chunk falls out of that cache it is
+ *
+ *     dropped    if nothing in it was ever uncovered or flagged,
+ *                since it can be generated again exactly
+ *     resolved   if every safe location in it is uncovered and it
+ *                has no flags and no uncovered mine; it is then
+ *                remembered by its key alone
+ *     compacted  otherwise, to one bit per location for uncovered
+ *                and one for flagged (1 KB instead of 4 KB)
+ *
+ * and it is rebuilt from that when it is used again. Memory therefore
+ * depends on how much of the board has been played, not on how far
+ * apart the plays are.
+ *
+ * A cascade started from a location with a hint of 0 follows the
+ * same rules as Grid.uncoverAt across chunk borders, but with a low
+ * enough density it could run forever, so it stops after uncovering
+ * a set number of locations. Uncovered locations with a hint of 0 at
+ * the edge of a stopped cascade then still have covered neighbors,
+ * and uncovering one of those continues from there.
+ *
+ * Other objects can watch the grid through GridListener, which gets
+ * one typed call per event as with Grid.
+ */
+public class InfiniteGrid {
+    public static final int CHUNK_SIZE = 64;
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int WORDS = CHUNK_SIZE * CHUNK_SIZE / 64;
+    private static final int HALO = CHUNK_SIZE + 2;
+    private static final Compact RESOLVED = new Compact(null, null);
+
+    private final long seed;
+    private final double density;
+    private final long threshold;
+    private final int maxCascade;
+    private final Map<Long, Chunk> chunks;
+    private final Map<Long, Compact> stored = new HashMap<>();
+    private final boolean[] mineScratch = new boolean[HALO * HALO];
+    private Chunk last;
+    private long lastKey;
+    private int[] rows = new int[64];
+    private int[] cols = new int[64];
+    private GridListener[] listeners = new GridListener[0];
+    private boolean exploded;
+
+    /**
+     * This constructor creates a grid that keeps up to 256 chunks as
+     * Boards of one byte per location (about 1 MB) and stops cascades
+     * after 1,000,000 locations.
+     *
+     * @param seed the seed that decides where the mines are
+     * @param density the chance that any one location holds a mine
+     */
+    public InfiniteGrid(long seed, double density) {
+		this(seed, density, 256, 1000000);
+    }
+
+    /**
+     * This constructor creates a grid with the specified limits.
+     *
+     * @param seed the seed that decides where the mines are
+     * @param density the chance that any one location holds a mine
+     * @param cachedChunks how many chunks to keep as Boards
+     * @param maxCascade how many locations one uncover may uncover
+     * @throws IllegalArgumentException if the density is not in
+     *         [0, 1), or either limit is less than 1
+     */
+    public InfiniteGrid(long seed, double density, final int cachedChunks, int maxCascade) {
+		if(!(density >= 0 && density < 1)) {
+			throw new IllegalArgumentException("Illegal density " + density);
+		}
+		if(cachedChunks < 1 || maxCascade < 1) {
+			throw new IllegalArgumentException("Illegal limits " + cachedChunks + ", " + maxCascade);
+		}
+		this.seed = seed;
+		this.density = density;
+		this.threshold = (long)(density * (1L << 53));
+		this.maxCascade = maxCascade;
+		this.chunks = new LinkedHashMap<Long, Chunk>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+				if(size() <= cachedChunks) return false;
+				evict(eldest.getKey(), eldest.getValue());
+				return true;
+			}
+		};
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * This method returns Result.LOSE once a mine has been uncovered,
+     * and Result.NONE before that. An infinite grid cannot be won.
+     *
+     * @return the state of the Minesweeper game outcome
+     */
+    public Grid.Result getResult() {
+        return exploded ? Grid.Result.LOSE : Grid.Result.NONE;
+    }
+
+    /**
+     * This method returns the number of chunks currently kept as
+     * Boards.
+     *
+     * @return the number of cached chunks
+     */
+    public int getCachedChunks() {
+        return chunks.size();
+    }
+
+    /**
+     * This method returns the number of chunks that were evicted from
+     * the cache in resolved or compacted form.
+     *
+     * @return the number of stored chunks
+     */
+    public int getStoredChunks() {
+        return stored.size();
+    }
+
+    /**
+     * This method returns true if (row, col) holds a mine. It only
+     * depends on the seed, the density, and (row, col).
+     *
+     * @param row
+     * @param col
+     * @return whether (row, col) holds a mine
+     */
+    public boolean hasMine(int row, int col) {
+		long h = seed ^ (row * 0x9E3779B97F4A7C15L) ^ (col * 0xC2B2AE3D27D4EB4FL);
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		h ^= h >>> 31;
+		return (h >>> 11) < threshold;
+    }
+
+    /**
+     * This method returns a copy of the location at (row, col). Unlike
+     * Grid.getLocation, changing the copy does not change the grid,
+     * since the chunk behind it may be evicted at any time.
+     *
+     * @param row
+     * @param col
+     * @return a copy of the location at (row, col)
+     */
+    public Location getLocation(int row, int col) {
+		Board board = chunk(row, col).board;
+		int index = localIndex(row, col);
+		Location loc = new Location();
+		loc.setMine(board.hasMine(index));
+		loc.setHint(board.getHint(index));
+		loc.setType(board.getType(index));
+        return loc;
+    }
+
+    /**
+     * This method returns true if a flag is at (row, col).
+     *
+     * @param row
+     * @param col
+     * @return whether a flag is at (row, col)
+     */
+    public boolean isFlagAt(int row, int col) {
+        return chunk(row, col).board.typeBits(localIndex(row, col)) == Board.FLAGGED;
+    }
+
+    public void addGridListener(GridListener listener) {
+		GridListener[] list = Arrays.copyOf(listeners, listeners.length + 1);
+		list[listeners.length] = listener;
+		listeners = list;
+    }
+
+    public void removeGridListener(GridListener listener) {
+		for(int i = 0; i < listeners.length; i++) {
+			if(listeners[i] == listener) {
+				GridListener[] list = new GridListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, list, 0, i);
+				System.arraycopy(listeners, i + 1, list, i, list.length - i);
+				listeners = list;
+				return;
+			}
+		}
+    }
+
+    /**
+     * This method places a flag at (row, col) if it is covered.
+     *
+     * @param row
+     * @param col
+     */
+    public void placeFlagAt(int row, int col) {
+		Chunk chunk = chunk(row, col);
+		int index = localIndex(row, col);
+		if(chunk.board.typeBits(index) == Board.COVERED) {
+			chunk.board.setType(index, Location.Type.FLAGGED);
+			chunk.touched = true;
+			for(GridListener listener : listeners) listener.onFlag(row, col);
+		}
+    }
+
+    /**
+     * This method removes a flag at (row, col) if it is flagged.
+     *
+     * @param row
+     * @param col
+     */
+    public void removeFlagAt(int row, int col) {
+		Chunk chunk = chunk(row, col);
+		int index = localIndex(row, col);
+		if(chunk.board.typeBits(index) == Board.FLAGGED) {
+			chunk.board.setType(index, Location.Type.COVERED);
+			for(GridListener listener : listeners) listener.onUnflag(row, col);
+		}
+    }
+
+    /**
+     * This method uncovers (row, col) if it is covered, and cascades
+     * through neighbors as Grid.uncoverAt does, across chunk borders,
+     * until the cascade ends or reaches the maximum size. It also
+     * continues from any uncovered neighbor with a hint of 0 that
+     * still has covered neighbors (the edge of a stopped cascade).
+     *
+     * @param row
+     * @param col
+     * @return the number of locations uncovered
+     */
+    public int uncoverAt(int row, int col) {
+		Chunk chunk = chunk(row, col);
+		int index = localIndex(row, col);
+		if(chunk.board.typeBits(index) != Board.COVERED) return 0;
+		chunk.touched = true;
+		chunk.board.setType(index, Location.Type.UNCOVERED);
+		if(chunk.board.hasMine(index)) {
+			exploded = true;
+			for(GridListener listener : listeners) listener.onMine(row, col);
+			return 1;
+		}
+		int hint = chunk.board.getHint(index);
+		for(GridListener listener : listeners) listener.onReveal(row, col, hint);
+		int uncovered = 1;
+		int size = 0;
+		if(hint == 0) {
+			rows[0] = row;
+			cols[0] = col;
+			size = 1;
+		}
+		else {
+			for(int i = row - 1; i <= row + 1; i++) {
+				for(int j = col - 1; j <= col + 1; j++) {
+					if(getHint(i, j) == 0 && isUncoveredSafe(i, j)) size = push(size, i, j);
+				}
+			}
+		}
+		while(size > 0 && uncovered < maxCascade) {
+			size--;
+			int r = rows[size];
+			int c = cols[size];
+			for(int i = r - 1; i <= r + 1 && uncovered < maxCascade; i++) {
+				for(int j = c - 1; j <= c + 1 && uncovered < maxCascade; j++) {
+					chunk = chunk(i, j);
+					index = localIndex(i, j);
+					if(chunk.board.isCoveredSafe(index)) {
+						chunk.touched = true;
+						chunk.board.setType(index, Location.Type.UNCOVERED);
+						hint = chunk.board.getHint(index);
+						uncovered++;
+						for(GridListener listener : listeners) listener.onReveal(i, j, hint);
+						if(hint == 0) size = push(size, i, j);
+					}
+				}
+			}
+		}
+		return uncovered;
+    }
+
+    private int getHint(int row, int col) {
+        return chunk(row, col).board.getHint(localIndex(row, col));
+    }
+
+    private boolean isUncoveredSafe(int row, int col) {
+		Board board = chunk(row, col).board;
+		int index = localIndex(row, col);
+        return board.typeBits(index) == Board.UNCOVERED && !board.hasMine(index);
+    }
+
+    private int push(int size, int row, int col) {
+		if(size == rows.length) {
+			rows = Arrays.copyOf(rows, size * 2);
+			cols = Arrays.copyOf(cols, size * 2);
+		}
+		rows[size] = row;
+		cols[size] = col;
+		return size + 1;
+    }
+
+    private static int localIndex(int row, int col) {
+        return ((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK);
+    }
+
+    /**
+     * This method returns the chunk holding (row, col), loading it into
+     * the cache if it is not there. The most recent chunk is remembered
+     * so that runs of lookups in one chunk skip the cache. This does not
+     * make eviction approximate: every lookup that misses the fast path
+     * goes through the access-ordered map and then becomes the remembered
+     * chunk, so the remembered chunk is always the most recently used
+     * entry already, and a hit on it could not move it anyway.
+     *
+     * @param row
+     * @param col
+     * @return the chunk holding (row, col)
+     */
+    private Chunk chunk(int row, int col) {
+		long key = ((long)(row >> CHUNK_SHIFT) << 32) | ((col >> CHUNK_SHIFT) & 0xFFFFFFFFL);
+		if(last != null && key == lastKey) return last;
+		Chunk chunk = chunks.get(key);
+		if(chunk == null) {
+			chunk = load(row >> CHUNK_SHIFT, col >> CHUNK_SHIFT, stored.remove(key));
+			chunks.put(key, chunk);
+		}
+		last = chunk;
+		lastKey = key;
+		return chunk;
+    }
+
+    /**
+     * This method generates the mines and hints of a chunk from the
+     * seed, then restores what was uncovered and flagged in it when
+     * it was evicted (if anything).
+     *
+     * @param chunkRow the row of the chunk
+     * @param chunkCol the column of the chunk
+     * @param compact the evicted state of the chunk, or null
+     * @return the chunk
+     */
+    private Chunk load(int chunkRow, int chunkCol, Compact compact) {
+		int top = (chunkRow << CHUNK_SHIFT) - 1;
+		int left = (chunkCol << CHUNK_SHIFT) - 1;
+		boolean[] mine = mineScratch;
+		for(int i = 0; i < HALO; i++) {
+			for(int j = 0; j < HALO; j++) {
+				mine[i * HALO + j] = hasMine(top + i, left + j);
+			}
+		}
+		Board board = new Board(CHUNK_SIZE, CHUNK_SIZE);
+		for(int i = 0; i < CHUNK_SIZE; i++) {
+			for(int j = 0; j < CHUNK_SIZE; j++) {
+				int center = (i + 1) * HALO + j + 1;
+				int hint = 0;
+				for(int k = center - HALO; k <= center + HALO; k += HALO) {
+					if(mine[k - 1]) hint++;
+					if(mine[k]) hint++;
+					if(mine[k + 1]) hint++;
+				}
+				int index = board.index(i, j);
+				if(mine[center]) {
+					board.setMine(index, true);
+					hint--;
+				}
+				board.setHint(index, hint);
+			}
+		}
+		Chunk chunk = new Chunk(board);
+		if(compact == RESOLVED) {
+			for(int index = 0; index < board.size(); index++) {
+				if(!board.hasMine(index)) board.setType(index, Location.Type.UNCOVERED);
+			}
+			chunk.touched = true;
+		}
+		else if(compact != null) {
+			for(int index = 0; index < board.size(); index++) {
+				long bit = 1L << index;
+				if((compact.uncovered[index >>> 6] & bit) != 0) board.setType(index, Location.Type.UNCOVERED);
+				else if((compact.flagged[index >>> 6] & bit) != 0) board.setType(index, Location.Type.FLAGGED);
+			}
+			chunk.touched = true;
+		}
+		return chunk;
+    }
+
+    /**
+     * This method keeps what is needed to rebuild a chunk that is
+     * leaving the cache (see the class comment).
+     *
+     * @param key the key of the chunk
+     * @param chunk the chunk
+     */
+    private void evict(long key, Chunk chunk) {
+		if(chunk == last) last = null;
+		if(!chunk.touched) return;
+		Board board = chunk.board;
+		if(board.getFlagged() == 0 && board.getUncoveredMines() == 0 && board.getUncoveredSafe() == chunk.safe) {
+			stored.put(key, RESOLVED);
+			return;
+		}
+		long[] uncovered = new long[WORDS];
+		long[] flagged = new long[WORDS];
+		for(int index = 0; index < board.size(); index++) {
+			int type = board.typeBits(index);
+			if(type == Board.UNCOVERED) uncovered[index >>> 6] |= 1L << index;
+			else if(type == Board.FLAGGED) flagged[index >>> 6] |= 1L << index;
+		}
+		stored.put(key, new Compact(uncovered, flagged));
+    }
+
+    /**
+     * This class is a chunk in the cache.
+     */
+    private static class Chunk {
+        final Board board;
+        final int safe;
+        boolean touched;
+
+        Chunk(Board board) {
+			this.board = board;
+			int mines = 0;
+			for(int index = 0; index < board.size(); index++) {
+				if(board.hasMine(index)) mines++;
+			}
+			this.safe = board.size() - mines;
+        }
+    }
+
+    /**
+     * This class is the evicted state of a chunk, one bit per location.
+     */
+    private static class Compact {
+        final long[] uncovered;
+        final long[] flagged;
+
+        Compact(long[] uncovered, long[] flagged) {
+			this.uncovered = uncovered;
+			this.flagged = flagged;
+        }
+    }
+}
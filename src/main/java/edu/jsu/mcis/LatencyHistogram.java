@@ -0,0 +1,156 @@
+package edu.jsu.mcis;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * This class counts how often values fall in each of a fixed set of 
+ * buckets, the way an HDR histogram does, so that percentiles of 
+ * millions of samples can be read back without keeping the samples.
+ * Values 0 through 15 each have their own bucket; above that every 
+ * power of two is split into 16 buckets of equal width, so a value is
+ * always reported within 1/16 (6.25%) of its true size. The buckets
+ * cover every non-negative long in 960 counts.
+ *
+ * Any number of threads can record at once without locking. The 
+ * buckets are kept in several stripes, each a full set of atomic 
+ * counts, and a thread records into the stripe picked by its id, so 
+ * threads recording into one histogram (which every Grid of a size 
+ * shares) mostly update different cache lines. The stripes are summed
+ * when the histogram is read. The total, sum, and maximum are kept in
+ * LongAdders and a LongAccumulator, which spread contended updates the
+ * same way. The readings are therefore not an atomic snapshot while 
+ * values are being recorded, but each is accurate to within the 
+ * values recorded during the read.
+ *
+ * Although it is named for latencies, which Metrics records in
+ * nanoseconds, it holds any non-negative values (such as cascade 
+ * sizes); negative values are recorded as 0.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (64 - SUB_BITS - 1) * SUB_BUCKETS;
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    
+    public LatencyHistogram(String name) {
+		this.name = name;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * This method counts one value.
+     * 
+     * @param value the value, in nanoseconds for a latency
+     */
+    public void record(long value) {
+		if(value < 0) value = 0;
+		int stripe = (int)Thread.currentThread().getId() & (STRIPES - 1);
+		counts.incrementAndGet(stripe * BUCKETS + bucketOf(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+    }
+    
+    /**
+     * This is a private convenience method that returns the count of a
+     * bucket, summed over the stripes.
+     */
+    private long countOf(int bucket) {
+		long total = 0;
+		for(int i = bucket; i < counts.length(); i += BUCKETS) total += counts.get(i);
+        return total;
+    }
+    
+    /**
+     * This method returns the bucket that holds a non-negative value.
+     */
+    static int bucketOf(long value) {
+		if(value < SUB_BUCKETS) return (int)value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int)((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+    
+    /**
+     * This method returns the largest value that falls in a bucket.
+     */
+    static long highestValueIn(int bucket) {
+		if(bucket < SUB_BUCKETS) return bucket;
+		int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		long sub = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public double getMean() {
+		long n = count.sum();
+        return (n == 0) ? 0 : (double)sum.sum() / n;
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * This method returns the value that the specified percentage of 
+     * the recorded values do not exceed, to within the width of its 
+     * bucket (and never more than the maximum).
+     * 
+     * @param percentile the percentage, in [0, 100]
+     * @return the value, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+		long total = 0;
+		for(int i = 0; i < counts.length(); i++) total += counts.get(i);
+		if(total == 0) return 0;
+		long target = Math.max(1, (long)Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += countOf(i);
+			if(seen >= target) return Math.min(highestValueIn(i), getMax());
+		}
+        return getMax();
+    }
+    
+    public long getP50() {
+        return getValueAtPercentile(50);
+    }
+    
+    public long getP90() {
+        return getValueAtPercentile(90);
+    }
+    
+    public long getP99() {
+        return getValueAtPercentile(99);
+    }
+    
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+    
+    /**
+     * This method forgets every recorded value.
+     */
+    public void reset() {
+		for(int i = 0; i < counts.length(); i++) counts.set(i, 0);
+		count.reset();
+		sum.reset();
+		max.reset();
+    }
+    
+    public String toString() {
+        return String.format("%s count=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                             name, getCount(), getMean(), getP50(), getP90(), getP99(), getP999(), getMax());
+    }
+}
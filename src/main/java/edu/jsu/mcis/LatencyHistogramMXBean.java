@@ -0,0 +1,18 @@
+package edu.jsu.mcis;
+
+/**
+ * This interface is how a LatencyHistogram is seen through JMX (in 
+ * jconsole or VisualVM, for example), under the name
+ * edu.jsu.mcis:type=Histogram,name="...".
+ */
+public interface LatencyHistogramMXBean {
+    String getName();
+    long getCount();
+    double getMean();
+    long getMax();
+    long getP50();
+    long getP90();
+    long getP99();
+    long getP999();
+    void reset();
+}
@@ -0,0 +1,149 @@
+package edu.jsu.mcis;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class puts load on a GameServer. It opens a number of 
+ * connections, each on its own thread with its own GameClient, and 
+ * has each one keep a number of games going at once. Every move is a
+ * random uncover (or, one time in ten, a flag) in the next game of its
+ * connection, round robin; a game that ends is replaced by a new one.
+ * It times every move from sending the request to reading the answer.
+ *
+ * Game k of connection c is seeded with seed + c * 1000003 + k, and 
+ * the moves of connection c come from a Random seeded with seed + c.
+ *
+ * It can be run from the command line as
+ *
+ *     java edu.jsu.mcis.LoadGenerator host port connections games moves [seed]
+ *
+ * which makes `moves` moves on every connection, on 16x30 expert 
+ * games, and prints the result.
+ */
+public class LoadGenerator {
+    private final InetSocketAddress address;
+    private final int connections;
+    private final int games;
+    private final int width;
+    private final int height;
+    private final int mines;
+    
+    /**
+     * This constructor creates a load generator for a server.
+     * 
+     * @param address the address of the server
+     * @param connections the number of connections
+     * @param games the number of games each connection keeps going
+     * @param width the width of every game
+     * @param height the height of every game
+     * @param mines the number of mines in every game
+     */
+    public LoadGenerator(InetSocketAddress address, int connections, int games, int width, int height, int mines) {
+		if(connections < 1 || games < 1) {
+			throw new IllegalArgumentException("Illegal load " + connections + " connections x " + games + " games");
+		}
+		this.address = address;
+		this.connections = connections;
+		this.games = games;
+		this.width = width;
+		this.height = height;
+		this.mines = mines;
+    }
+    
+    /**
+     * This method makes `moves` moves on every connection and waits 
+     * for them to finish. Games still going at the end are ended.
+     * 
+     * @param seed the seed of the run
+     * @param moves the number of moves per connection
+     * @return the statistics of the run
+     * @throws IOException if any connection fails
+     */
+    public LoadResult run(final long seed, final int moves) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(connections);
+		List<Future<long[]>> futures = new ArrayList<>();
+		final long[] finished = new long[connections];
+		long start = System.nanoTime();
+		try {
+			for(int c = 0; c < connections; c++) {
+				final int connection = c;
+				futures.add(pool.submit(new Callable<long[]>() {
+					public long[] call() throws IOException {
+						return play(connection, seed, moves, finished);
+					}
+				}));
+			}
+			long[] latencies = new long[connections * moves];
+			for(int c = 0; c < connections; c++) {
+				System.arraycopy(futures.get(c).get(), 0, latencies, c * moves, moves);
+			}
+			long elapsed = System.nanoTime() - start;
+			long total = 0;
+			for(long count : finished) total += count;
+			return new LoadResult(total, elapsed, latencies);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted");
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof IOException) throw (IOException)e.getCause();
+			throw new IOException(e.getCause());
+		}
+		finally {
+			pool.shutdownNow();
+		}
+    }
+    
+    /**
+     * This method plays the moves of one connection and returns their
+     * latencies, counting finished games in finished[connection].
+     */
+    private long[] play(int connection, long seed, int moves, long[] finished) throws IOException {
+		long[] latencies = new long[moves];
+		Random random = new Random(seed + connection);
+		long gameSeed = seed + connection * 1000003L;
+		CellChanges changes = new CellChanges(width);
+		try(GameClient client = new GameClient(address)) {
+			int[] ids = new int[games];
+			for(int g = 0; g < games; g++) {
+				ids[g] = client.newGame(width, height, mines, gameSeed++);
+			}
+			for(int move = 0; move < moves; move++) {
+				int g = move % games;
+				int action = (random.nextInt(10) == 0) ? MoveJournal.FLAG : MoveJournal.UNCOVER;
+				changes.clear();
+				long before = System.nanoTime();
+				Grid.Result result = client.move(ids[g], action, random.nextInt(height), random.nextInt(width), changes);
+				latencies[move] = System.nanoTime() - before;
+				if(result != Grid.Result.NONE) {
+					finished[connection]++;
+					client.endGame(ids[g]);
+					ids[g] = client.newGame(width, height, mines, gameSeed++);
+				}
+			}
+			for(int g = 0; g < games; g++) {
+				client.endGame(ids[g]);
+			}
+		}
+		return latencies;
+    }
+    
+    public static void main(String[] args) throws IOException {
+		if(args.length < 5 || args.length > 6) {
+			System.out.println("Usage: LoadGenerator host port connections games moves [seed]");
+			return;
+		}
+		InetSocketAddress address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+		int connections = Integer.parseInt(args[2]);
+		int games = Integer.parseInt(args[3]);
+		int moves = Integer.parseInt(args[4]);
+		long seed = (args.length == 6) ? Long.parseLong(args[5]) : System.nanoTime();
+		LoadGenerator generator = new LoadGenerator(address, connections, games, 30, 16, 99);
+		System.out.println("seed " + seed);
+		System.out.println(generator.run(seed, moves));
+    }
+}
@@ -0,0 +1,64 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class holds the outcome of a LoadGenerator run: how many moves
+ * were answered, how many games were finished, how long the run took,
+ * and the latency of every move.
+ */
+public class LoadResult {
+    private final long moves;
+    private final long games;
+    private final long elapsedNanos;
+    private final long[] latencies;
+    
+    /**
+     * This constructor creates a result from the latency of every move
+     * in nanoseconds, which it sorts.
+     */
+    public LoadResult(long games, long elapsedNanos, long[] latencies) {
+		this.moves = latencies.length;
+		this.games = games;
+		this.elapsedNanos = elapsedNanos;
+		this.latencies = latencies;
+		Arrays.sort(latencies);
+    }
+    
+    public long getMoves() {
+        return moves;
+    }
+    
+    public long getGames() {
+        return games;
+    }
+    
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    /**
+     * This method returns the latency that the specified fraction of
+     * moves did not exceed.
+     * 
+     * @param fraction the fraction in [0, 1], e.g. 0.99 for p99
+     * @return the latency in nanoseconds (0 if there were no moves)
+     */
+    public long getLatencyNanos(double fraction) {
+		if(latencies.length == 0) return 0;
+		int index = (int)Math.ceil(fraction * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+    }
+    
+    public double getMovesPerSecond() {
+        return elapsedNanos == 0 ? 0 : moves * 1e9 / elapsedNanos;
+    }
+    
+    public String toString() {
+        return String.format("%d moves, %d games finished, %.3f s, %.0f moves/s, "
+                             + "latency p50 %.1f us, p99 %.1f us, max %.1f us",
+                             moves, games, elapsedNanos / 1e9, getMovesPerSecond(),
+                             getLatencyNanos(0.5) / 1e3, getLatencyNanos(0.99) / 1e3, 
+                             getLatencyNanos(1) / 1e3);
+    }
+}
@@ -7,21 +7,35 @@ package edu.jsu.mcis;
  * exclusive). It can also have a mine (or not), and it is associated
  * with a hint, which is a number in [0, 8] representing the number
  * of mines that are adjacent to it.
+ *
+ * A location does not store its state in fields of its own. It is a
+ * view of one packed cell of a Board, so the locations returned by
+ * Grid.getLocation read and write the grid directly. A location made
+ * with the public constructor is backed by its own single-cell board.
  */
 public class Location {
     public enum Type {COVERED, UNCOVERED, FLAGGED};
-    private Type type;
-    private boolean mine;
-    private int hint;
+    private final Board board;
+    private final int index;
     
     /**
      * This constructor creates a location with default settings
      * (type COVERED, mine false, hint 0).
      */
     public Location() {
-		this.type = Type.COVERED;
-		this.mine = false;
-		this.hint = 0;
+		this(new Board(1, 1), 0);
+    }
+    
+    /**
+     * This constructor creates a view of the cell at `index` in the
+     * specified board.
+     * 
+     * @param board the board holding the cell
+     * @param index the index of the cell in the board
+     */
+    Location(Board board, int index) {
+		this.board = board;
+		this.index = index;
     }
     
     /**
@@ -29,35 +43,30 @@ public class Location {
      * (type COVERED, mine false, hint 0).
      */
     public void reset() {
-		this.type = Type.COVERED;
-		this.mine = false;
-		this.hint = 0;
+		board.reset(index);
     }
     
     public Type getType() { 
-        //return Type.COVERED;
-		return type;
+		return board.getType(index);
     }
     
     public void setType(Type t) { 
-		this.type = t;
+		board.setType(index, t);
     }
     
     public boolean hasMine() { 
-        //return false;
-		return mine;
+		return board.hasMine(index);
     }
     
     public void setMine(boolean m) { 
-		this.mine = m;
+		board.setMine(index, m);
     }
 
     public int getHint() { 
-        //return 0;
-		return hint;
+		return board.getHint(index);
     }
     
     public void setHint(int h) { 
-		this.hint = h;
+		board.setHint(index, h);
     }
 }
@@ -1,33 +1,54 @@
 package edu.jsu.mcis;
 
+import java.awt.event.*;
+import java.io.*;
+import java.nio.file.*;
 import javax.swing.*;
 
 
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Grid g = new Grid();
         System.out.println(g);
         
         
         Minesweeper board = null;
+        Replayer replayer = null;
         if(args.length == 0) {
             board = new Minesweeper();
         }
-        else if(args.length == 3) {
+        else if(args.length == 2 && args[0].equals("replay")) {
+            replayer = Replayer.load(Paths.get(args[1]));
+            board = new Minesweeper(replayer.createGrid());
+        }
+        else if(args.length == 3 || args.length == 4) {
             board = new Minesweeper(Integer.parseInt(args[0]),
                                     Integer.parseInt(args[1]),
                                     Integer.parseInt(args[2]));
+            if(args.length == 4) {
+                board.startJournal(new FileOutputStream(args[3]));
+            }
         }
         if(board == null) {
             System.out.println("You must either specify all of width/height/mines or none (default 8/8/10).");
+            System.out.println("Add a file name after width/height/mines to record the game, or use \"replay file\" to watch one.");
         }
         else {
+            final Minesweeper game = board;
             JFrame win = new JFrame("Minesweeper");
             win.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            win.addWindowListener(new WindowAdapter() {
+                public void windowClosing(WindowEvent event) {
+                    game.closeJournal();
+                }
+            });
             win.add(board);
             win.pack();
             win.setVisible(true);
+            if(replayer != null) {
+                replayer.play(board.getGrid(), 1);
+            }
         }
         
     }
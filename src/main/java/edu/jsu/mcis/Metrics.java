@@ -0,0 +1,198 @@
+package edu.jsu.mcis;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.management.*;
+
+/**
+ * This class holds the counters and histograms that Grid and 
+ * Minesweeper keep on their hot paths, so that time spent in the game
+ * can be tied to the board sizes and cascade lengths that caused it.
+ * They are only kept when the JVM is started with
+ *
+ *     -Dminesweeper.metrics=true
+ *
+ * ENABLED is a static final constant read once, so every call site is
+ * guarded by `if(Metrics.ENABLED)` and the JIT compiler removes the
+ * guarded code entirely when it is false. Switched off, the metrics
+ * cost nothing but a few unused fields.
+ *
+ * Counters are LongAdders and histograms are LatencyHistograms, whose
+ * buckets are striped by thread, so threads recording at once mostly
+ * update different cache lines. Both are looked up by name once (Grid
+ * and Minesweeper look theirs up when they are made) and then updated
+ * directly. Metrics that depend on the size of the board are named 
+ * with it, as by sized.
+ *
+ * When the metrics are on, everything is registered with the platform
+ * MBean server as it is created (see MetricsMXBean). When they are 
+ * off, the MBean server is not started unless a histogram is asked 
+ * for anyway. Everything can be dumped to a text file. If 
+ * -Dminesweeper.metrics.file=path is also given, a dump is written 
+ * there when the JVM exits.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("minesweeper.metrics");
+    
+    public static final String DOMAIN = "edu.jsu.mcis";
+    
+    private static final ConcurrentMap<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    
+    static {
+		if(ENABLED) register(new Bean(), "type=Metrics");
+		final String file = System.getProperty("minesweeper.metrics.file");
+		if(ENABLED && file != null) {
+			Runtime.getRuntime().addShutdownHook(new Thread("metrics-dump") {
+				public void run() {
+					try {
+						dump(Paths.get(file));
+					}
+					catch(IOException e) {
+						System.err.println("Could not write metrics to " + file + ": " + e);
+					}
+				}
+			});
+		}
+    }
+    
+    private Metrics() {}
+    
+    /**
+     * This method returns the name of a metric for a board of the
+     * specified size, e.g. "grid.uncover.cascade.30x16".
+     * 
+     * @param name the name of the metric
+     * @param width the width of the board
+     * @param height the height of the board
+     * @return the name followed by the size
+     */
+    public static String sized(String name, int width, int height) {
+        return name + "." + width + "x" + height;
+    }
+    
+    /**
+     * This method returns the counter with the specified name, 
+     * creating it if there is none.
+     * 
+     * @param name the name of the counter
+     * @return the counter
+     */
+    public static LongAdder counter(String name) {
+		LongAdder counter = counters.get(name);
+		if(counter != null) return counter;
+		LongAdder created = new LongAdder();
+		counter = counters.putIfAbsent(name, created);
+		return (counter != null) ? counter : created;
+    }
+    
+    /**
+     * This method returns the histogram with the specified name, 
+     * creating and registering it if there is none.
+     * 
+     * @param name the name of the histogram
+     * @return the histogram
+     */
+    public static LatencyHistogram histogram(String name) {
+		LatencyHistogram histogram = histograms.get(name);
+		if(histogram != null) return histogram;
+		LatencyHistogram created = new LatencyHistogram(name);
+		histogram = histograms.putIfAbsent(name, created);
+		if(histogram != null) return histogram;
+		register(created, "type=Histogram,name=" + ObjectName.quote(name));
+		return created;
+    }
+    
+    /**
+     * This method writes every counter, one per line as "name value",
+     * and then every histogram, one per line as by its toString.
+     * Latencies are in nanoseconds.
+     * 
+     * @param out where to write
+     */
+    public static void dump(Appendable out) throws IOException {
+		out.append("# minesweeper metrics at ").append(new Date().toString()).append('\n');
+		for(Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+			out.append(entry.getKey()).append(' ').append(String.valueOf(entry.getValue().sum())).append('\n');
+		}
+		for(LatencyHistogram histogram : histograms.values()) {
+			out.append(histogram.toString()).append('\n');
+		}
+    }
+    
+    /**
+     * This method writes the dump to a file, replacing it.
+     * 
+     * @param path the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void dump(Path path) throws IOException {
+		try(Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			dump(out);
+		}
+    }
+    
+    /**
+     * This method zeroes every counter and histogram.
+     */
+    public static void reset() {
+		for(LongAdder counter : counters.values()) counter.reset();
+		for(LatencyHistogram histogram : histograms.values()) histogram.reset();
+    }
+    
+    /**
+     * This is a private convenience method that registers an MBean, 
+     * giving up quietly if JMX refuses it.
+     */
+    private static void register(Object bean, String properties) {
+		try {
+			ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if(!server.isRegistered(name)) server.registerMBean(bean, name);
+		}
+		catch(JMException | SecurityException e) {}
+    }
+    
+    /**
+     * This class is the MBean for the metrics as a whole.
+     */
+    private static class Bean implements MetricsMXBean {
+        public boolean isEnabled() {
+            return ENABLED;
+        }
+        
+        public Map<String, Long> getCounters() {
+			Map<String, Long> values = new TreeMap<>();
+			for(Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+				values.put(entry.getKey(), entry.getValue().sum());
+			}
+            return values;
+        }
+        
+        public String[] getHistogramNames() {
+            return histograms.keySet().toArray(new String[0]);
+        }
+        
+        public String dump() {
+			StringBuilder out = new StringBuilder();
+			try {
+				Metrics.dump(out);
+			}
+			catch(IOException e) {}
+            return out.toString();
+        }
+        
+        public void dumpTo(String path) throws IOException {
+			Metrics.dump(Paths.get(path));
+        }
+        
+        public void reset() {
+			Metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package edu.jsu.mcis;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * This interface is how Metrics is seen through JMX, under the name
+ * edu.jsu.mcis:type=Metrics. Each histogram is also registered as a
+ * LatencyHistogramMXBean of its own.
+ */
+public interface MetricsMXBean {
+    boolean isEnabled();
+    Map<String, Long> getCounters();
+    String[] getHistogramNames();
+    
+    /**
+     * This method returns every counter and histogram as text, in the
+     * form written by dumpTo.
+     */
+    String dump();
+    
+    /**
+     * This method writes every counter and histogram to a file.
+     * 
+     * @param path the path of the file, which is replaced
+     */
+    void dumpTo(String path) throws IOException;
+    
+    /**
+     * This method zeroes every counter and histogram.
+     */
+    void reset();
+}
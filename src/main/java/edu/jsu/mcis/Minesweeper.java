@@ -3,40 +3,77 @@ package edu.jsu.mcis;
 import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 
 /**
  * This class represents a graphical view of the Minesweeper grid. It
  * has a two-dimensional array of JLabels for the locations, a Ticker
  * object for the count-up timer, and a JLabel to display the current
- * available flags.
+ * available flags. Grids with more than LABEL_LIMIT locations are 
+ * instead shown by a single BoardView in a scroll pane, since one 
+ * label per location becomes far too slow and large for them.
  *
  * It implements the MouseListener to apply to each label in the grid
  * so that right-clicking places flags and left-clicking uncovers the
- * location. It also implements the Observer interface so that it can
- * be an observer of the grid. This means it receives the messages 
- * produced by the grid. Those messages are as follows:
- *     row:col:mine
- *     row:col:flag
- *     row:col:unflag
- *     row:col:<hint> (where <hint> is an integer)
+ * location. Middle-clicking, or pressing both the left and right
+ * buttons and letting go of either, chords (see Grid.chordAt). It 
+ * also implements the CellChangeListener interface so that it can 
+ * listen to the grid. This means it receives one batch of changes per
+ * action on the grid, where each change is a location and one of the
+ * following (see CellChanges):
+ *     MINE
+ *     FLAG
+ *     UNFLAG
+ *     <hint> (an integer in [0, 8])
  * The main updating of the interface should be done in response to
- * those messages.
+ * those changes.
+ *
+ * Changes made on the event dispatch thread (by the player) are shown
+ * at once. Changes made on any other thread (by a bot or a replay) are
+ * collected in a DirtyRegion and shown by the event dispatch thread at
+ * most once per frame (FRAME_MILLIS), all together, so the interface
+ * stays safe and responsive however fast the grid is played.
+ *
+ * The "new game" button (see newGame) resets the grid and the board in
+ * place, so starting another game builds nothing new.
  */
-public class Minesweeper extends JPanel implements MouseListener, Observer {
+public class Minesweeper extends JPanel implements MouseListener, CellChangeListener {
     /**
      * These constants can be used as the icons on labels.
      */
     private final ImageIcon FLAG_ICON = new ImageIcon(getClass().getClassLoader().getResource("flag.png"));
     private final ImageIcon MINE_ICON = new ImageIcon(getClass().getClassLoader().getResource("mine.png"));
     
+    /**
+     * Grids with more locations than this are drawn by a BoardView.
+     */
+    public static final int LABEL_LIMIT = 128 * 128;
+    
+    /**
+     * Changes from other threads are shown at most this often.
+     */
+    public static final int FRAME_MILLIS = 16;
+    
     private Grid grid;
+    private MoveJournal journal;
     private int flags;
     private JLabel[][] tile;
+    private BoardView view;
+    private DirtyRegion dirty;
+    private int[] drainedCells;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private javax.swing.Timer flushTimer;
     private JLabel flagLabel;
     private Ticker ticker;
     private boolean enabled;
+    private int buttons;
+    private boolean chording;
+    private LatencyHistogram updateTimes;
+    private LatencyHistogram clickTimes;
+    private LatencyHistogram flushTimes;
         
     /**
      * This constructor should create a new 8-by-8 board with 10 mines.
@@ -85,39 +122,108 @@ public class Minesweeper extends JPanel implements MouseListener, Observer {
      * The `enabled` class variable should be initialized
      * to true.
      * 
+     * The grid is created with safeFirstClick, so no mines are placed
+     * until the first left-click, and that click never hits a mine.
+     * Its mines come from a randomly chosen seed (see getSeed).
+     * 
      * @param width 
      * @param height 
      * @param mines 
      */
     public Minesweeper(int width, int height, int mines) {
-		grid = new Grid(width, height, mines);
-		grid.addObserver(this);
-		tile = new JLabel[height][width];
+		this(new Random().nextLong(), width, height, mines);
+    }
+    
+    /**
+     * This constructor works like the one above, except that the grid
+     * is seeded with the specified seed (see Grid.getSeed), so the same
+     * seed and the same moves always make the same game.
+     * 
+     * @param seed the seed of the grid
+     * @param width 
+     * @param height 
+     * @param mines 
+     */
+    public Minesweeper(long seed, int width, int height, int mines) {
+		this(new Grid(width, height, mines, seed, true));
+    }
+    
+    /**
+     * This constructor creates the board for an existing grid, such as
+     * one being rebuilt by a Replayer. Its seed is the grid's, if the
+     * grid is seeded.
+     * 
+     * @param grid the grid to show and play
+     */
+    public Minesweeper(Grid grid) {
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		this.grid = grid;
+		grid.addChangeListener(this);
+		if(Metrics.ENABLED){
+			updateTimes = Metrics.histogram(Metrics.sized("ui.update.nanos", width, height));
+			clickTimes = Metrics.histogram(Metrics.sized("ui.click.nanos", width, height));
+			flushTimes = Metrics.histogram(Metrics.sized("ui.flush.nanos", width, height));
+		}
 		JPanel panel = new JPanel();
 		panel.setLayout(new GridLayout(1,5));
 		panel.add(new JLabel("flags"));
-		flags = mines;
+		flags = grid.getMines();
 		flagLabel = new JLabel(""+flags);
 		panel.add(flagLabel);
 		flagLabel.setName("flags");
 		ticker = new Ticker();
 		panel.add(ticker);
 		ticker.setName("ticker");
-		JPanel gridPanel = new JPanel();
-		gridPanel.setLayout(new GridLayout(height, width));
-				
-		for(int i = 0; i < height; i++){
-			for(int j = 0; j < width; j++){
-				tile[i][j] = new JLabel();
-				tile[i][j].setPreferredSize(new Dimension(50, 50));
-				tile[i][j].setHorizontalAlignment(0);
-				tile[i][j].setName("cell:" + i + ":" + j); 
-				tile[i][j].setBorder(BorderFactory.createRaisedBevelBorder());
-				add(tile[i][j]);
-				tile[i][j].addMouseListener(this);
-				gridPanel.add(tile[i][j]);
+		JButton newGameButton = new JButton("new game");
+		newGameButton.setName("newGame");
+		newGameButton.setFocusable(false);
+		newGameButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				newGame();
+			}
+		});
+		panel.add(newGameButton);
+		Component gridPanel;
+		if((long)width * height > LABEL_LIMIT){
+			view = new BoardView(grid, 16, FLAG_ICON.getImage(), MINE_ICON.getImage());
+			view.setName("board");
+			view.addMouseListener(this);
+			gridPanel = new JScrollPane(view);
+		}
+		else{
+			tile = new JLabel[height][width];
+			JPanel labelPanel = new JPanel();
+			labelPanel.setLayout(new GridLayout(height, width));
+					
+			for(int i = 0; i < height; i++){
+				for(int j = 0; j < width; j++){
+					tile[i][j] = new JLabel();
+					tile[i][j].setPreferredSize(new Dimension(50, 50));
+					tile[i][j].setHorizontalAlignment(0);
+					tile[i][j].setName("cell:" + i + ":" + j); 
+					tile[i][j].setBorder(BorderFactory.createRaisedBevelBorder());
+					add(tile[i][j]);
+					tile[i][j].addMouseListener(this);
+					labelPanel.add(tile[i][j]);
+				}
 			}
+			gridPanel = labelPanel;
+			drainedCells = new int[width * height];
 		}
+		dirty = new DirtyRegion(width, height, view == null);
+		flushTimer = new javax.swing.Timer(FRAME_MILLIS, new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				long start = Metrics.ENABLED ? System.nanoTime() : 0;
+				boolean flushed = flushChanges();
+				if(Metrics.ENABLED && flushed) flushTimes.record(System.nanoTime() - start);
+				if(!flushed){
+					flushTimer.stop();
+					flushScheduled.set(false);
+					if(!dirty.isEmpty()) scheduleFlush();
+				}
+			}
+		});
 		enabled = true;
 		setLayout(new BorderLayout());
 		add(panel, BorderLayout.NORTH);
@@ -134,48 +240,253 @@ public class Minesweeper extends JPanel implements MouseListener, Observer {
 		
 		
 
+    }
+    
+    public Grid getGrid() {
+        return grid;
+    }
+    
+    /**
+     * This method returns the seed of the current game, which is what
+     * a MoveJournal needs to rebuild it, or 0 if the grid is not seeded.
+     * 
+     * @return the seed of the grid
+     */
+    public long getSeed() {
+        return grid.hasSeed() ? grid.getSeed() : 0;
+    }
+    
+    /**
+     * This method starts recording every move made on the board to
+     * `out` (see MoveJournal). The journal is flushed when a game ends
+     * or a new one is started, and must be closed (see closeJournal) 
+     * before the program exits. It should be called before the first
+     * move.
+     * 
+     * @param out the stream to write the journal to
+     * @throws IOException if the journal header cannot be written
+     * @throws IllegalStateException if the grid is not seeded, since
+     *         its games could not be rebuilt from the journal
+     */
+    public void startJournal(OutputStream out) throws IOException {
+		if(!grid.hasSeed()) throw new IllegalStateException("Only a seeded grid can be journaled");
+		journal = new MoveJournal(out, grid);
+    }
+    
+    /**
+     * This method writes out and closes the journal, if there is one,
+     * and stops recording. Main calls it when the window is closed.
+     */
+    public void closeJournal() {
+		if(journal != null){
+			try {
+				journal.close();
+			}
+			catch(IOException e) {}
+			journal = null;
+		}
+    }
+    
+    /**
+     * This method returns the journal started by startJournal, or null.
+     * 
+     * @return the journal of the board
+     */
+    public MoveJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * This method starts a new game on the same grid and the same 
+     * labels (or BoardView), instead of building a new board: the grid
+     * is reset (a seeded grid moving on to the seed after the last 
+     * game's), and every location, the flag count, and the ticker are
+     * put back as they were at the start (see gridReset). A journal 
+     * records it as a RESET, so a replay goes through the same games.
+     * It must be called on the event dispatch thread; the "new game" 
+     * button calls it.
+     */
+    public void newGame() {
+		record(MoveJournal.RESET, new Point(-1, -1));
+		flushJournal();
+		grid.reset();
+		ticker.reset();
+		buttons = 0;
+		chording = false;
+    }
+    
+    /**
+     * This method puts every location and the flag count back as they
+     * are at the start of a game, whoever reset the grid (newGame, or 
+     * a replay of a journal). The changes from before the reset that
+     * are not shown yet are dropped. A reset from another thread 
+     * redraws the board on the event dispatch thread, from the grid as
+     * it is by then, so moves made right after the reset are kept.
+     * 
+     * @param g the grid that was reset
+     */
+    public void gridReset(Grid g) {
+		dirty.clear();
+		if(!SwingUtilities.isEventDispatchThread()) {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					redraw();
+				}
+			});
+			return;
+		}
+		redraw();
+    }
+    
+    /**
+     * This is a private convenience method that shows every location
+     * and the flag count as they are on the grid.
+     */
+    private void redraw() {
+		enabled = true;
+		updateFlags();
+		if(view != null){
+			view.repaint();
+			return;
+		}
+		for(int i = 0; i < tile.length; i++){
+			for(int j = 0; j < tile[i].length; j++){
+				drawTile(i, j);
+			}
+		}
+    }
+    
+    /**
+     * This is a private convenience method that shows the location at
+     * (row, col) as it is on the grid.
+     * 
+     * @param row 
+     * @param col 
+     */
+    private void drawTile(int row, int col) {
+		Location loc = grid.getLocation(row, col);
+		if(loc.getType() == Location.Type.FLAGGED) updateTile(row, col, CellChanges.FLAG);
+		else if(loc.getType() == Location.Type.UNCOVERED) updateTile(row, col, loc.hasMine() ? CellChanges.MINE : loc.getHint());
+		else {
+			tile[row][col].setIcon(null);
+			tile[row][col].setText("");
+			tile[row][col].setToolTipText(null);
+		}
     }
     
     /**
-     * This method should interpret the message from the grid.
-     *     String message = (String)arg;
-     * It should accomplish this by splitting the message at the 
-     * colon delimiters. Depending on the message, the interface 
-     * should be updated.
+     * This is a private convenience method that shows the number of 
+     * flags left, counted from the grid, so that flags placed by a bot
+     * or a replay are counted too.
+     */
+    private void updateFlags() {
+		flags = grid.getMines() - grid.getFlagCount();
+		flagLabel.setText(""+flags);
+    }
+    
+    /**
+     * This method should interpret the batch of changes from the 
+     * grid. Depending on each change, the interface should be 
+     * updated. The labels repaint themselves when their text or icon
+     * changes, so one batch results in one round of repainting no 
+     * matter how many locations it contains.
      * 
      * The tooltip text should be updated on the cells to reflect
      * their current state (uncovered, covered, flagged, or mine).
+     * A BoardView reads the grid itself, so for one it only repaints
+     * the rectangle around the batch.
+     *
+     * @param g the grid that changed
+     * @param changes the locations that changed and their new info
+     */
+    public void cellsChanged(Grid g, CellChanges changes) {
+		if(!SwingUtilities.isEventDispatchThread()) {
+			dirty.add(changes);
+			scheduleFlush();
+			return;
+		}
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		flushChanges();
+		if(view != null) {
+			view.repaintCells(changes);
+			updateFlags();
+		}
+		else {
+			for(int i = 0; i < changes.size(); i++) {
+				updateTile(changes.getRow(i), changes.getCol(i), changes.getInfo(i));
+			}
+		}
+		if(Metrics.ENABLED) updateTimes.record(System.nanoTime() - start);
+    }
+    
+    /**
+     * This is a private convenience method that starts the flush timer
+     * from the event dispatch thread, unless it is already started.
+     */
+    private void scheduleFlush() {
+		if(flushScheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					flushTimer.start();
+				}
+			});
+		}
+    }
+    
+    /**
+     * This method shows every change collected from other threads. It
+     * must be called on the event dispatch thread, which does so once
+     * per frame while changes keep arriving. Each changed label is
+     * drawn from the grid as it is by then, not from the latest info
+     * code, since a flag removed and uncovered after the last frame
+     * only leaves the hint as its latest code.
      * 
-     * @param o the observable (Grid object)
-     * @param arg (the message, which is actually a String)
+     * @return whether there was anything to show
      */
-    public void update(Observable o, Object arg) {
-		String s = (String)arg;
-		Scanner scanner = new Scanner(s);
-		scanner.useDelimiter(":");
-		int row = scanner.nextInt();
-		int col = scanner.nextInt();
-		String info = scanner.next();
-		
-		if(info.equals("flag")) {
+    boolean flushChanges() {
+		if(view != null) {
+			Rectangle bounds = dirty.takeBounds();
+			if(bounds == null) return false;
+			view.repaint(view.cellBounds(bounds.y, bounds.x, bounds.y + bounds.height - 1, bounds.x + bounds.width - 1));
+			updateFlags();
+			return true;
+		}
+		int count = dirty.drain(drainedCells);
+		int width = grid.getWidth();
+		for(int i = 0; i < count; i++) {
+			drawTile(drainedCells[i] / width, drainedCells[i] % width);
+		}
+		return count > 0;
+    }
+    
+    /**
+     * This is a private convenience method that updates the label at
+     * (row, col) to show the specified info code.
+     * 
+     * @param row 
+     * @param col 
+     * @param info the hint, or CellChanges.MINE, FLAG, or UNFLAG
+     */
+    private void updateTile(int row, int col, int info) {
+		if(info == CellChanges.FLAG) {
 			tile[row][col].setToolTipText("flagged");
 			tile[row][col].setIcon(FLAG_ICON);
-			this.flagLabel.setText(""+flags);
+			updateFlags();
 		}
-		else if(info.equals("unflag")) {
+		else if(info == CellChanges.UNFLAG) {
 			tile[row][col].setToolTipText("uncovered");
 			tile[row][col].setIcon(null);
-			this.flagLabel.setText(""+flags);
+			updateFlags();
 		}
-		else if(info.equals("mine")) {
+		else if(info == CellChanges.MINE) {
 			tile[row][col].setIcon(MINE_ICON);
+			tile[row][col].setText("");
 		}
 		else {
 			tile[row][col].setToolTipText("covered");
-			tile[row][col].setText(info);
+			tile[row][col].setIcon(null);
+			tile[row][col].setText(String.valueOf(info));
 		}
-		tile[row][col].repaint();
-		
     }
     
     /**
@@ -183,27 +494,73 @@ public class Minesweeper extends JPanel implements MouseListener, Observer {
      * labels. Remember that the very first time that a label is 
      * clicked (left or right), the count-up timer should start.
      * 
+     * When metrics are on (see Metrics), the time it holds the event
+     * dispatch thread is recorded, cascade and repainting included.
+     * 
      * @param event the clicking mouse event
      */
     public void mouseClicked(MouseEvent event) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		click(event);
+		if(Metrics.ENABLED) clickTimes.record(System.nanoTime() - start);
+    }
+    
+    /**
+     * This is a private convenience method that carries out a click.
+     * 
+     * @param event the clicking mouse event
+     */
+    private void click(MouseEvent event) {
 		if(!ticker.isRunning()){
 			ticker.start();
 		}
+		if(chording) return;
 		Point point = findSourceIndex(event);
+		if(point.x < 0) return;
+		if(event.getButton() == MouseEvent.BUTTON2){
+			chord(point);
+			return;
+		}
 		if(event.getButton() == MouseEvent.BUTTON1){	
+			record(MoveJournal.UNCOVER, point);
 			grid.uncoverAt(point.x, point.y);
 		}	
 		else if(event.getButton() == MouseEvent.BUTTON3){
 			if(grid.isFlagAt(point.x, point.y)){
+				record(MoveJournal.UNFLAG, point);
 				grid.removeFlagAt(point.x, point.y);
-				this.flags++;
 			}
 			else {
+				record(MoveJournal.FLAG, point);
 				grid.placeFlagAt(point.x, point.y);
-				this.flags--;
 			}
 		}	
+		checkResult();
+    }
+    
+    /**
+     * This is a private convenience method that chords at the point
+     * (x is row, y is column) and checks the result once afterwards.
+     * 
+     * @param point the point of the chord
+     */
+    private void chord(Point point) {
+		if(point.x < 0) return;
+		if(!ticker.isRunning()){
+			ticker.start();
+		}
+		record(MoveJournal.CHORD, point);
+		grid.chordAt(point.x, point.y);
+		checkResult();
+    }
+    
+    /**
+     * This is a private convenience method that ends the game when it
+     * has been won or lost.
+     */
+    private void checkResult() {
 		Grid.Result result = grid.getResult();
+		if(result != Grid.Result.NONE) flushJournal();
 		if(result == Grid.Result.WIN){
 			JOptionPane pane = new JOptionPane();
 			JOptionPane.showMessageDialog(null, "You Won" + ticker.getText());
@@ -219,6 +576,41 @@ public class Minesweeper extends JPanel implements MouseListener, Observer {
 
     }   
     
+    /**
+     * This is a private convenience method that writes out the moves
+     * recorded so far, if there is a journal. If it cannot be written,
+     * the game goes on without it.
+     */
+    private void flushJournal() {
+		if(journal != null){
+			try {
+				journal.flush();
+			}
+			catch(IOException e) {
+				journal = null;
+			}
+		}
+    }
+    
+    /**
+     * This is a private convenience method that records a move in the
+     * journal, if there is one. If the journal cannot be written, the
+     * game goes on without it.
+     * 
+     * @param action the MoveJournal action
+     * @param point the point (x is row, y is column) of the move
+     */
+    private void record(int action, Point point) {
+		if(journal != null){
+			try {
+				journal.record(action, point.x, point.y);
+			}
+			catch(IOException e) {
+				journal = null;
+			}
+		}
+    }
+    
     /**
      * This is a private convenience method that returns the point
      * (x and y) representing the row and column of the label that
@@ -232,7 +624,10 @@ public class Minesweeper extends JPanel implements MouseListener, Observer {
     private Point findSourceIndex(MouseEvent event) {
 		Point p = new Point(-1, -1);
 		Component c = (Component)event.getSource();
-		if(c.getName().startsWith("cell")){
+		if(c == view){
+			p = view.cellAt(event.getPoint());
+		}
+		else if(c.getName().startsWith("cell")){
 			String s = c.getName();
 			Scanner scanner = new Scanner(s);
 			scanner.useDelimiter(":");
@@ -245,11 +640,35 @@ public class Minesweeper extends JPanel implements MouseListener, Observer {
     }
     
     
+    /**
+     * These methods keep track of which buttons are down, so that 
+     * letting go of one of them while both the left and right buttons
+     * are down chords. The clicks that Swing reports for the buttons
+     * of a chord are ignored until every button is up again.
+     * 
+     * @param event the pressed or released mouse event
+     */
+    public void mousePressed(MouseEvent event) {
+		if(buttons == 0) chording = false;
+		buttons |= buttonMask(event);
+		if((buttons & (1 << MouseEvent.BUTTON1)) != 0 && (buttons & (1 << MouseEvent.BUTTON3)) != 0){
+			chording = true;
+		}
+    }
+    
+    public void mouseReleased(MouseEvent event) {
+		boolean both = (buttons & (1 << MouseEvent.BUTTON1)) != 0 && (buttons & (1 << MouseEvent.BUTTON3)) != 0;
+		buttons &= ~buttonMask(event);
+		if(both) chord(findSourceIndex(event));
+    }
+    
+    private static int buttonMask(MouseEvent event) {
+        return 1 << event.getButton();
+    }
+    
     /**
      * These methods do not need true implementations.
      */
-    public void mousePressed(MouseEvent event) {}
-    public void mouseReleased(MouseEvent event) {}
     public void mouseEntered(MouseEvent event) {}
     public void mouseExited(MouseEvent event) {}
 }
@@ -0,0 +1,127 @@
+package edu.jsu.mcis;
+
+import java.io.*;
+
+/**
+ * This class records the moves of a game to an append-only binary log,
+ * so that the game can be rebuilt later by a Replayer. The log starts
+ * with a header that fixes the board (all numbers big-endian):
+ *
+ *     size  contents
+ *        4  the magic number 0x4D53574A ("MSWJ")
+ *        2  the format version (1)
+ *        2  flags: 2 if the grid was made with safeFirstClick,
+ *                  4 if the grid is seeded
+ *        4  the width
+ *        4  the height
+ *        4  the number of mines
+ *        8  the seed of the grid (see Grid.getSeed) if it is seeded,
+ *           or else the seed of its java.util.Random
+ *
+ * followed by one 13-byte record per move:
+ *
+ *     size  contents
+ *        1  the action (UNCOVER, FLAG, UNFLAG, RESET, or CHORD)
+ *        4  the row (-1 for RESET)
+ *        4  the column (-1 for RESET)
+ *        4  milliseconds since the journal was started
+ *
+ * Every move the player makes is recorded, even one that changes
+ * nothing on the grid, since the grid is rebuilt from the seed by
+ * repeating them. Records are collected in a 64 KB buffer and only
+ * written when it fills, or on flush or close.
+ */
+public class MoveJournal implements Closeable {
+    public static final int MAGIC = 0x4D53574A;
+    public static final int VERSION = 1;
+    public static final int SAFE_FIRST_CLICK = 2;
+    public static final int SEEDED = 4;
+
+    public static final int UNCOVER = 1;
+    public static final int FLAG = 2;
+    public static final int UNFLAG = 3;
+    public static final int RESET = 4;
+    public static final int CHORD = 5;
+
+    private final DataOutputStream out;
+    private final long start;
+    private long moves;
+
+    /**
+     * This constructor starts a journal for a seeded grid, recording
+     * the seed of its current game, and writes the header. The grid
+     * should not have been played yet.
+     * 
+     * @param out the stream to write the log to
+     * @param grid the grid being played
+     * @throws IOException if the header cannot be written
+     * @throws IllegalStateException if the grid is not seeded
+     */
+    public MoveJournal(OutputStream out, Grid grid) throws IOException {
+		this(out, grid, grid.getSeed(), SEEDED);
+    }
+    
+    /**
+     * This constructor starts a journal for a grid whose Random was
+     * created with `seed`, and writes the header. The grid should not
+     * have been played yet.
+     *
+     * @param out the stream to write the log to
+     * @param grid the grid being played
+     * @param seed the seed of the grid's Random
+     * @throws IOException if the header cannot be written
+     */
+    public MoveJournal(OutputStream out, Grid grid, long seed) throws IOException {
+		this(out, grid, seed, 0);
+    }
+    
+    private MoveJournal(OutputStream out, Grid grid, long seed, int flags) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		this.out.writeInt(MAGIC);
+		this.out.writeShort(VERSION);
+		this.out.writeShort((grid.isSafeFirstClick() ? SAFE_FIRST_CLICK : 0) | flags);
+		this.out.writeInt(grid.getWidth());
+		this.out.writeInt(grid.getHeight());
+		this.out.writeInt(grid.getMines());
+		this.out.writeLong(seed);
+		this.start = System.nanoTime();
+    }
+
+    /**
+     * This method records one move, timestamped with the current time.
+     *
+     * @param action UNCOVER, FLAG, UNFLAG, RESET, or CHORD
+     * @param row the row of the move (-1 for RESET)
+     * @param col the column of the move (-1 for RESET)
+     * @throws IOException if the buffer cannot be written out
+     */
+    public void record(int action, int row, int col) throws IOException {
+		out.writeByte(action);
+		out.writeInt(row);
+		out.writeInt(col);
+		out.writeInt((int)((System.nanoTime() - start) / 1000000));
+		moves++;
+    }
+
+    /**
+     * This method returns the number of moves recorded so far.
+     *
+     * @return the number of moves
+     */
+    public long getMoveCount() {
+        return moves;
+    }
+
+    /**
+     * This method writes out every buffered record.
+     *
+     * @throws IOException if the records cannot be written
+     */
+    public void flush() throws IOException {
+		out.flush();
+    }
+
+    public void close() throws IOException {
+		out.close();
+    }
+}
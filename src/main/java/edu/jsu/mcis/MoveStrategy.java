@@ -0,0 +1,23 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This interface is implemented by the players that the Simulator
+ * uses to play games without a user interface. A strategy makes one
+ * move at a time by calling uncoverAt, placeFlagAt, or removeFlagAt 
+ * on the grid. The same strategy object is used by every worker 
+ * thread at once, so it must not keep per-game state in fields.
+ */
+public interface MoveStrategy {
+    /**
+     * This method makes one move on the grid. It is only called while
+     * the result of the grid is Result.NONE.
+     * 
+     * @param grid the grid being played
+     * @param random the pseudorandom number generator of the current 
+     *        game, for strategies that need to choose randomly
+     * @return false if the strategy has no move to make
+     */
+    boolean move(Grid grid, Random random);
+}
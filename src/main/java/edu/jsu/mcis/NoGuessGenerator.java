@@ -0,0 +1,174 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * This class generates grids that the Solver can finish from a given
+ * first uncover without ever guessing ("no-guess" boards). It does so
+ * by trial: candidate k is the layout that a safeFirstClick grid 
+ * seeded with SplitMix.derive(seed, k) generates for that first 
+ * uncover, and the search solves candidates until one of them is won.
+ * The grid returned keeps that seed, so the board can be rebuilt from
+ * it (see Grid.getSeed).
+ *
+ * Candidates are handed out in order to one searcher per thread of a
+ * ForkJoinPool. Each searcher keeps one grid and one solver for the
+ * whole search and reuses them for every candidate. As soon as some
+ * candidate succeeds, searchers stop taking candidates after it, but
+ * finish the ones before it, and the lowest successful candidate wins.
+ * The same seed therefore always gives the same board, no matter how
+ * many threads search (unless the search times out).
+ *
+ * If no candidate succeeds before the timeout, the search gives up and
+ * returns candidate 0, an ordinary random layout.
+ *
+ * It can be run from the command line as
+ *
+ *     java edu.jsu.mcis.NoGuessGenerator width height mines [seed]
+ *
+ * which searches for a board with the first uncover in the middle and
+ * prints how long it took.
+ */
+public class NoGuessGenerator {
+    private final int width;
+    private final int height;
+    private final int mines;
+    private final ForkJoinPool pool;
+
+    /**
+     * This constructor creates a generator that searches on the common
+     * ForkJoinPool, which uses all available cores.
+     *
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     */
+    public NoGuessGenerator(int width, int height, int mines) {
+		this(width, height, mines, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This constructor creates a generator that searches on the
+     * specified pool, with one searcher per thread of the pool.
+     *
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param pool the pool whose threads search
+     * @throws IllegalArgumentException if the grid size or number of
+     *         mines is illegal
+     */
+    public NoGuessGenerator(int width, int height, int mines, ForkJoinPool pool) {
+		if(width < 1 || height < 1 || mines < 0 || mines > (long)width * height) {
+			throw new IllegalArgumentException("Cannot place " + mines + " mines on a " + width + "x" + height + " grid");
+		}
+		this.width = width;
+		this.height = height;
+		this.mines = mines;
+		this.pool = pool;
+    }
+
+    /**
+     * This method searches for a no-guess layout with its first
+     * uncover at (row, col) and waits for the search to finish. The
+     * returned grid is fully covered and already generated, so the
+     * player should start at (row, col); a later reset of the grid
+     * generates an ordinary random layout.
+     *
+     * @param seed the seed of the search (candidate k is seeded with 
+     *        SplitMix.derive(seed, k))
+     * @param row the row of the first uncover
+     * @param col the column of the first uncover
+     * @param timeoutMillis how long to search before giving up
+     * @return the grid and statistics of the search
+     * @throws IndexOutOfBoundsException if (row, col) is not a legal index
+     */
+    public GenerationResult generate(long seed, int row, int col, long timeoutMillis) {
+		if(row < 0 || row >= height || col < 0 || col >= width) {
+			throw new IndexOutOfBoundsException("(" + row + ", " + col + ")");
+		}
+		long start = System.nanoTime();
+		Search search = new Search(seed, row, col, start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+		pool.invoke(search);
+		long elapsed = System.nanoTime() - start;
+		long found = search.found.get();
+		boolean noGuess = found != Long.MAX_VALUE;
+		long candidate = noGuess ? found : 0;
+		Grid grid = new Grid(width, height, mines, SplitMix.derive(seed, candidate), true);
+		grid.generateAt(row, col);
+		return new GenerationResult(grid, noGuess, candidate, search.attempts.sum(), elapsed);
+    }
+
+    /**
+     * This task runs one Searcher per thread of the pool and keeps
+     * the state they share.
+     */
+    private class Search extends RecursiveAction {
+        private final long seed;
+        private final int row;
+        private final int col;
+        private final long deadline;
+        private final AtomicLong next = new AtomicLong();
+        private final AtomicLong found = new AtomicLong(Long.MAX_VALUE);
+        private final LongAdder attempts = new LongAdder();
+
+        Search(long seed, int row, int col, long deadline) {
+			this.seed = seed;
+			this.row = row;
+			this.col = col;
+			this.deadline = deadline;
+        }
+
+        protected void compute() {
+			List<Searcher> searchers = new ArrayList<>();
+			for(int i = 0; i < pool.getParallelism(); i++) {
+				searchers.add(new Searcher(this));
+			}
+			invokeAll(searchers);
+        }
+    }
+
+    /**
+     * This task takes candidates from the search until one at or
+     * after the lowest success so far comes up, or time runs out.
+     */
+    private class Searcher extends RecursiveAction {
+        private final Search search;
+
+        Searcher(Search search) {
+			this.search = search;
+        }
+
+        protected void compute() {
+			Grid grid = new Grid(width, height, mines, 0, true);
+			Solver solver = new Solver(grid);
+			while(System.nanoTime() - search.deadline < 0) {
+				long k = search.next.getAndIncrement();
+				if(k >= search.found.get()) break;
+				grid.reset(SplitMix.derive(search.seed, k));
+				solver.reset();
+				grid.uncoverAt(search.row, search.col);
+				search.attempts.increment();
+				if(solver.solve() == Grid.Result.WIN) {
+					search.found.accumulateAndGet(k, Math::min);
+				}
+			}
+        }
+    }
+
+    public static void main(String[] args) {
+		if(args.length < 3 || args.length > 4) {
+			System.out.println("Usage: NoGuessGenerator width height mines [seed]");
+			return;
+		}
+		int width = Integer.parseInt(args[0]);
+		int height = Integer.parseInt(args[1]);
+		int mines = Integer.parseInt(args[2]);
+		long seed = (args.length == 4) ? Long.parseLong(args[3]) : System.nanoTime();
+		NoGuessGenerator generator = new NoGuessGenerator(width, height, mines);
+		System.out.println("seed " + seed);
+		System.out.println(generator.generate(seed, height / 2, width / 2, 10000));
+    }
+}
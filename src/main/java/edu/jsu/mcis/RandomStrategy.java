@@ -0,0 +1,46 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class is the simplest MoveStrategy: every move uncovers a 
+ * random covered location. It is the baseline that smarter players 
+ * are measured against.
+ */
+public class RandomStrategy implements MoveStrategy {
+    private static final int ATTEMPTS = 32;
+    
+    /**
+     * This method uncovers a random covered location. It tries a few
+     * random locations first and then falls back to scanning from a 
+     * random starting point, so it finds one quickly even when only a
+     * few are left.
+     * 
+     * @param grid the grid being played
+     * @param random the pseudorandom number generator of the game
+     * @return false if no location is covered
+     */
+    public boolean move(Grid grid, Random random) {
+		int size = grid.getWidth() * grid.getHeight();
+		for(int i = 0; i < ATTEMPTS; i++) {
+			int index = random.nextInt(size);
+			if(uncoverIfCovered(grid, index)) return true;
+		}
+		int start = random.nextInt(size);
+		for(int i = 0; i < size; i++) {
+			int index = (start + i) % size;
+			if(uncoverIfCovered(grid, index)) return true;
+		}
+		return false;
+    }
+    
+    private boolean uncoverIfCovered(Grid grid, int index) {
+		int row = index / grid.getWidth();
+		int col = index % grid.getWidth();
+		if(grid.getLocation(row, col).getType() == Location.Type.COVERED) {
+			grid.uncoverAt(row, col);
+			return true;
+		}
+		return false;
+    }
+}
@@ -0,0 +1,199 @@
+package edu.jsu.mcis;
+
+import java.awt.event.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * This class rebuilds a game from a log written by MoveJournal. It
+ * reads the whole log into a few parallel arrays up front, so a
+ * replay is a tight loop over those arrays with no I/O or parsing. A
+ * grid created by createGrid starts exactly as the recorded one did,
+ * and after replaying the moves it is in exactly the recorded state.
+ *
+ * The moves can be replayed all at once (replay), or at the pace they
+ * were recorded (play), which uses a Swing Timer so that a Minesweeper
+ * panel showing the grid is updated on the event dispatch thread.
+ */
+public class Replayer {
+    private final int width;
+    private final int height;
+    private final int mines;
+    private final boolean safeFirstClick;
+    private final boolean seeded;
+    private final long seed;
+    private byte[] actions = new byte[64];
+    private int[] rows = new int[64];
+    private int[] cols = new int[64];
+    private int[] times = new int[64];
+    private int moves;
+
+    /**
+     * This constructor reads a whole log.
+     *
+     * @param in the stream to read the log from
+     * @throws IOException if the log cannot be read, or is not a
+     *         valid log of a version this class knows
+     */
+    public Replayer(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		if(data.readInt() != MoveJournal.MAGIC) throw new IOException("Not a move journal");
+		int version = data.readShort();
+		if(version != MoveJournal.VERSION) throw new IOException("Unsupported move journal version " + version);
+		int flags = data.readShort();
+		safeFirstClick = (flags & MoveJournal.SAFE_FIRST_CLICK) != 0;
+		seeded = (flags & MoveJournal.SEEDED) != 0;
+		width = data.readInt();
+		height = data.readInt();
+		mines = data.readInt();
+		seed = data.readLong();
+		int action;
+		while((action = data.read()) >= 0) {
+			if(action < MoveJournal.UNCOVER || action > MoveJournal.CHORD) {
+				throw new IOException("Illegal action " + action + " in move " + moves);
+			}
+			if(moves == actions.length) {
+				actions = Arrays.copyOf(actions, moves * 2);
+				rows = Arrays.copyOf(rows, moves * 2);
+				cols = Arrays.copyOf(cols, moves * 2);
+				times = Arrays.copyOf(times, moves * 2);
+			}
+			actions[moves] = (byte)action;
+			rows[moves] = data.readInt();
+			cols[moves] = data.readInt();
+			times[moves] = data.readInt();
+			moves++;
+		}
+    }
+
+    /**
+     * This method reads the log in the file at `path`.
+     *
+     * @param path the file to read
+     * @return the replayer for the log
+     * @throws IOException if the log cannot be read or is not valid
+     */
+    public static Replayer load(Path path) throws IOException {
+		try(InputStream in = Files.newInputStream(path)) {
+			return new Replayer(in);
+		}
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getMines() {
+        return mines;
+    }
+
+    /**
+     * This method returns the seed in the log: the seed of the grid if
+     * it was seeded (see isSeeded), or else the seed of its Random.
+     * 
+     * @return the seed of the recorded game
+     */
+    public long getSeed() {
+        return seed;
+    }
+    
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    public int getMoveCount() {
+        return moves;
+    }
+
+    public int getAction(int move) {
+        return actions[move];
+    }
+
+    public int getRow(int move) {
+        return rows[move];
+    }
+
+    public int getCol(int move) {
+        return cols[move];
+    }
+
+    /**
+     * This method returns when the move was made, in milliseconds since
+     * the journal was started.
+     *
+     * @param move the number of the move
+     * @return the time of the move
+     */
+    public int getTime(int move) {
+        return times[move];
+    }
+
+    /**
+     * This method creates a grid in the state the recorded grid was in
+     * when the journal was started.
+     *
+     * @return a new grid for the replay
+     */
+    public Grid createGrid() {
+		if(seeded) return new Grid(width, height, mines, seed, safeFirstClick);
+        return new Grid(width, height, mines, new Random(seed), safeFirstClick);
+    }
+
+    /**
+     * This method makes every move on the grid, as fast as possible.
+     *
+     * @param grid a grid from createGrid
+     * @return the result of the grid afterwards
+     */
+    public Grid.Result replay(Grid grid) {
+		for(int move = 0; move < moves; move++) {
+			apply(grid, move);
+		}
+		return grid.getResult();
+    }
+
+    /**
+     * This method starts making the moves on the grid from the event
+     * dispatch thread, each after the same delay that separated it
+     * from the previous move when it was recorded (divided by
+     * `speed`). It returns at once; the timer stops itself after the
+     * last move, and can be stopped earlier by the caller.
+     *
+     * @param grid a grid from createGrid
+     * @param speed how many times faster than real time to replay
+     * @return the running timer
+     */
+    public javax.swing.Timer play(final Grid grid, final double speed) {
+		final javax.swing.Timer timer = new javax.swing.Timer(0, null);
+		timer.setRepeats(false);
+		timer.addActionListener(new ActionListener() {
+			private int move;
+
+			public void actionPerformed(ActionEvent event) {
+				if(move < moves) apply(grid, move++);
+				if(move < moves) {
+					timer.setInitialDelay((int)((times[move] - times[move - 1]) / speed));
+					timer.start();
+				}
+			}
+		});
+		timer.setInitialDelay(moves > 0 ? (int)(times[0] / speed) : 0);
+		timer.start();
+		return timer;
+    }
+
+    private void apply(Grid grid, int move) {
+		switch(actions[move]) {
+			case MoveJournal.UNCOVER: grid.uncoverAt(rows[move], cols[move]); break;
+			case MoveJournal.FLAG: grid.placeFlagAt(rows[move], cols[move]); break;
+			case MoveJournal.UNFLAG: grid.removeFlagAt(rows[move], cols[move]); break;
+			case MoveJournal.RESET: grid.reset(); break;
+			case MoveJournal.CHORD: grid.chordAt(rows[move], cols[move]); break;
+		}
+    }
+}
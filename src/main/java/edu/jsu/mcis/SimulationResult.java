@@ -0,0 +1,73 @@
+package edu.jsu.mcis;
+
+
+/**
+ * This class holds the outcome of a Simulator run: how many games
+ * were won, lost, or abandoned because the strategy ran out of moves,
+ * how many moves were made, and how long the run took.
+ */
+public class SimulationResult {
+    private final long wins;
+    private final long losses;
+    private final long stalls;
+    private final long moves;
+    private final long elapsedNanos;
+    
+    public SimulationResult(long wins, long losses, long stalls, long moves, long elapsedNanos) {
+		this.wins = wins;
+		this.losses = losses;
+		this.stalls = stalls;
+		this.moves = moves;
+		this.elapsedNanos = elapsedNanos;
+    }
+    
+    public long getGames() {
+        return wins + losses + stalls;
+    }
+    
+    public long getWins() {
+        return wins;
+    }
+    
+    public long getLosses() {
+        return losses;
+    }
+    
+    public long getStalls() {
+        return stalls;
+    }
+    
+    public long getMoves() {
+        return moves;
+    }
+    
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    /**
+     * This method returns the fraction of games that were won.
+     * 
+     * @return the win rate in the range [0, 1]
+     */
+    public double getWinRate() {
+        return getGames() == 0 ? 0 : (double)wins / getGames();
+    }
+    
+    /**
+     * This method returns the number of games played per second of 
+     * wall-clock time.
+     * 
+     * @return the throughput in games per second
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : getGames() * 1e9 / elapsedNanos;
+    }
+    
+    public String toString() {
+        return String.format("%d games (%d won, %d lost, %d stalled), win rate %.2f%%, "
+                             + "%d moves, %.3f s, %.0f games/s",
+                             getGames(), wins, losses, stalls, 100 * getWinRate(),
+                             moves, elapsedNanos / 1e9, getGamesPerSecond());
+    }
+}
@@ -0,0 +1,192 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class plays many games of Minesweeper without a user interface,
+ * so that board generators and bots can be measured on a headless 
+ * machine. Games are split into small batches on a ForkJoinPool, whose
+ * idle workers steal batches from busy ones. Each worker thread keeps
+ * one seeded Grid (created with safeFirstClick) and one Random for the
+ * whole run and reuses them for every game through reset and setSeed.
+ *
+ * Game i of a run with seed s is always played on a grid seeded with
+ * SplitMix.derive(s, i), which also seeds the Random the strategy is 
+ * given, no matter which thread plays it. A run therefore gives the
+ * same statistics every time for the same seed and strategy, and any
+ * one game of it can be rebuilt from its seed.
+ *
+ * It can be run from the command line as
+ *
+ *     java edu.jsu.mcis.Simulator width height mines games [seed] [random|solver]
+ *
+ * which plays the games with a SolverStrategy (or a RandomStrategy)
+ * and prints the result.
+ */
+public class Simulator {
+    private static final int GAMES_PER_TASK = 16;
+    
+    private final int width;
+    private final int height;
+    private final int mines;
+    private final MoveStrategy strategy;
+    private final ForkJoinPool pool;
+    
+    /**
+     * This constructor creates a simulator that plays on the common 
+     * ForkJoinPool, which uses all available cores.
+     * 
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param strategy the player
+     */
+    public Simulator(int width, int height, int mines, MoveStrategy strategy) {
+		this(width, height, mines, strategy, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * This constructor creates a simulator that plays on the specified
+     * pool.
+     * 
+     * @param width the width of the grid (number of columns)
+     * @param height the height of the grid (number of rows)
+     * @param mines the number of mines
+     * @param strategy the player
+     * @param pool the pool whose threads play the games
+     * @throws IllegalArgumentException if the grid size or number of
+     *         mines is illegal
+     */
+    public Simulator(int width, int height, int mines, MoveStrategy strategy, ForkJoinPool pool) {
+		if(width < 1 || height < 1 || mines < 0 || mines > (long)width * height) {
+			throw new IllegalArgumentException("Cannot place " + mines + " mines on a " + width + "x" + height + " grid");
+		}
+		this.width = width;
+		this.height = height;
+		this.mines = mines;
+		this.strategy = strategy;
+		this.pool = pool;
+    }
+    
+    /**
+     * This method plays the specified number of games and waits for
+     * them to finish.
+     * 
+     * @param seed the seed of the run (game i is seeded with 
+     *        SplitMix.derive(seed, i))
+     * @param games the number of games to play
+     * @return the statistics of the run
+     */
+    public SimulationResult run(long seed, int games) {
+		ThreadLocal<Worker> workers = new ThreadLocal<>();
+		long start = System.nanoTime();
+		Tally tally = pool.invoke(new GameTask(workers, seed, 0, games));
+		long elapsed = System.nanoTime() - start;
+		return new SimulationResult(tally.wins, tally.losses, tally.stalls, tally.moves, elapsed);
+    }
+    
+    /**
+     * This class is the grid and generator that one worker thread 
+     * reuses for all of its games.
+     */
+    private class Worker {
+        private final Random random = new Random();
+        private final Grid grid = new Grid(width, height, mines, 0, true);
+        
+        /**
+         * This method plays game number `game` to the end and adds its
+         * outcome to the tally. A game that is still going after every
+         * location could have been uncovered and flagged is counted as
+         * stalled, so that a strategy that never finishes cannot hang
+         * the run.
+         */
+        void play(long seed, Tally tally) {
+			random.setSeed(seed);
+			grid.reset(seed);
+			long limit = 2L * width * height;
+			long moves = 0;
+			Grid.Result result = Grid.Result.NONE;
+			while(result == Grid.Result.NONE && moves < limit && strategy.move(grid, random)) {
+				moves++;
+				result = grid.getResult();
+			}
+			tally.moves += moves;
+			if(result == Grid.Result.WIN) tally.wins++;
+			else if(result == Grid.Result.LOSE) tally.losses++;
+			else tally.stalls++;
+        }
+    }
+    
+    /**
+     * This class counts the outcomes of the games played by one task.
+     */
+    private static class Tally {
+        long wins;
+        long losses;
+        long stalls;
+        long moves;
+        
+        Tally add(Tally other) {
+			wins += other.wins;
+			losses += other.losses;
+			stalls += other.stalls;
+			moves += other.moves;
+			return this;
+        }
+    }
+    
+    /**
+     * This task plays games [from, to), splitting the range in half 
+     * until it is no bigger than GAMES_PER_TASK.
+     */
+    private class GameTask extends RecursiveTask<Tally> {
+        private final ThreadLocal<Worker> workers;
+        private final long seed;
+        private final int from;
+        private final int to;
+        
+        GameTask(ThreadLocal<Worker> workers, long seed, int from, int to) {
+			this.workers = workers;
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+        }
+        
+        protected Tally compute() {
+			if(to - from <= GAMES_PER_TASK) {
+				Worker worker = workers.get();
+				if(worker == null) {
+					worker = new Worker();
+					workers.set(worker);
+				}
+				Tally tally = new Tally();
+				for(int game = from; game < to; game++) {
+					worker.play(SplitMix.derive(seed, game), tally);
+				}
+				return tally;
+			}
+			int mid = (from + to) >>> 1;
+			GameTask left = new GameTask(workers, seed, from, mid);
+			left.fork();
+			Tally right = new GameTask(workers, seed, mid, to).compute();
+			return right.add(left.join());
+        }
+    }
+    
+    public static void main(String[] args) {
+		if(args.length < 4 || args.length > 6) {
+			System.out.println("Usage: Simulator width height mines games [seed] [random|solver]");
+			return;
+		}
+		int width = Integer.parseInt(args[0]);
+		int height = Integer.parseInt(args[1]);
+		int mines = Integer.parseInt(args[2]);
+		int games = Integer.parseInt(args[3]);
+		long seed = (args.length >= 5) ? Long.parseLong(args[4]) : System.nanoTime();
+		MoveStrategy strategy = (args.length == 6 && args[5].equals("random")) ? new RandomStrategy() : new SolverStrategy();
+		Simulator simulator = new Simulator(width, height, mines, strategy);
+		System.out.println("seed " + seed);
+		System.out.println(simulator.run(seed, games));
+    }
+}
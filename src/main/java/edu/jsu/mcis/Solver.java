@@ -0,0 +1,539 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class deduces which covered locations of a Grid are safe and 
+ * which contain mines, using only what a player can see: the hints of
+ * uncovered locations and the flags (which it trusts to be mines).
+ *
+ * Every uncovered hint is a constraint: its covered neighbors that are
+ * not yet known hold exactly (hint - known mines around it) mines. 
+ * The solver applies two rules to these constraints:
+ *
+ *     single point  if no mines remain, every unknown neighbor is 
+ *                   safe; if as many mines remain as there are 
+ *                   unknown neighbors, every one of them is a mine
+ *     pairs         for two constraints A and B within two locations
+ *                   of each other, if B needs as many more mines than
+ *                   A as B has cells that A does not, then those cells
+ *                   are all mines and the cells only A has are safe 
+ *                   (this covers the usual subset rule)
+ *
+ * The solver listens to the grid and keeps its own copy of what is 
+ * visible, updated by the listener events, so evaluating constraints
+ * never has to go back to the grid. It also listens for the grid being
+ * reset (see CellChangeListener), and starts over when it is. Only the constraints around a 
+ * location that changed (uncovered, flagged, or newly deduced) are 
+ * queued for evaluation, so each uncover only costs work along the 
+ * part of the frontier it touched. When nothing can be deduced, 
+ * getMineProbability and bestGuess estimate where to guess.
+ */
+public class Solver implements GridListener, CellChangeListener {
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+    
+    private static final byte COVERED = -1;
+    private static final byte FLAGGED = -2;
+    private static final byte EXPLODED = -3;
+    
+    private static final int WINDOW = 7;
+    
+    private final Grid grid;
+    private final int width;
+    private final int height;
+    private final byte[] visible;
+    private final byte[] known;
+    private final boolean[] queued;
+    private int[] queue = new int[64];
+    private int queueSize;
+    private final boolean[] pairQueued;
+    private int[] pairQueue = new int[64];
+    private int pairQueueSize;
+    private int[] safe = new int[64];
+    private int safeSize;
+    private int knownMines;
+    private int seen;
+    private int deductions;
+    private int remaining;
+    private final int[] set = new int[8];
+    
+    /**
+     * This constructor creates a solver for the grid and registers it
+     * as a listener of the grid. Anything already uncovered on the 
+     * grid is taken into account.
+     * 
+     * @param grid the grid to solve
+     */
+    public Solver(Grid grid) {
+		this.grid = grid;
+		this.width = grid.getWidth();
+		this.height = grid.getHeight();
+		this.visible = new byte[width * height];
+		this.known = new byte[width * height];
+		this.queued = new boolean[width * height];
+		this.pairQueued = new boolean[width * height];
+		grid.addGridListener(this);
+		grid.addChangeListener(this);
+		reset();
+    }
+    
+    public Grid getGrid() {
+        return grid;
+    }
+    
+    /**
+     * This method unregisters the solver from its grid.
+     */
+    public void detach() {
+		grid.removeGridListener(this);
+		grid.removeChangeListener(this);
+    }
+    
+    /**
+     * This method forgets every deduction and rebuilds the solver from
+     * what is currently visible on the grid. It must be called after 
+     * the grid is reset (sync does this automatically).
+     *
+     * It reads the uncovered locations and flags from a Bitboard copy
+     * of the grid, a word at a time, so only those locations are visited,
+     * and only the hints next to a covered location without a flag 
+     * are queued, since no other constraint can lead to a deduction.
+     */
+    public void reset() {
+		Arrays.fill(known, UNKNOWN);
+		Arrays.fill(queued, false);
+		Arrays.fill(pairQueued, false);
+		queueSize = 0;
+		pairQueueSize = 0;
+		safeSize = 0;
+		knownMines = 0;
+		seen = grid.getUncoveredCount();
+		Arrays.fill(visible, COVERED);
+		if(seen == 0 && grid.getFlagCount() == 0) return;
+		Bitboard bits = grid.getBitboard();
+		long[] uncovered = bits.getUncovered();
+		long[] flagged = bits.getFlagged();
+		long[] edge = bits.neighborsOf(bits.covered());
+		int words = bits.getWordsPerRow();
+		for(int k = 0; k < uncovered.length; k++) {
+			int row = k / words;
+			int first = row * width + ((k - row * words) << 6);
+			for(long word = flagged[k]; word != 0; word &= word - 1) {
+				visible[first + Long.numberOfTrailingZeros(word)] = FLAGGED;
+			}
+			for(long word = uncovered[k]; word != 0; word &= word - 1) {
+				int bit = Long.numberOfTrailingZeros(word);
+				int index = first + bit;
+				Location loc = grid.getLocation(row, index - row * width);
+				if(loc.hasMine()) {
+					visible[index] = EXPLODED;
+					known[index] = MINE;
+					knownMines++;
+				}
+				else {
+					visible[index] = (byte)loc.getHint();
+					if((edge[k] & (1L << bit)) != 0) enqueue(index);
+				}
+			}
+		}
+    }
+    
+    /**
+     * This method resets the solver if the grid no longer matches what
+     * the solver has seen. Resets of the grid are caught by gridReset,
+     * so this is only a check that no move was missed.
+     */
+    public void sync() {
+		if(grid.getUncoveredCount() != seen) reset();
+    }
+    
+    /**
+     * This method evaluates every queued constraint, along with any 
+     * constraints that its deductions queue in turn, until there is 
+     * nothing left to evaluate. The cheap single point rule is run on
+     * everything queued first; a constraint it cannot settle waits in
+     * a second queue, and the pair rule only runs on those once the 
+     * single point rule has nothing left to do.
+     * 
+     * @return the number of new deductions (safe locations and mines)
+     */
+    public int deduce() {
+		int before = deductions;
+		while(true) {
+			while(queueSize > 0) {
+				int cell = queue[--queueSize];
+				queued[cell] = false;
+				if(visible[cell] >= 0 && !evaluateSingle(cell) && !pairQueued[cell]) {
+					pairQueued[cell] = true;
+					if(pairQueueSize == pairQueue.length) pairQueue = Arrays.copyOf(pairQueue, pairQueueSize * 2);
+					pairQueue[pairQueueSize++] = cell;
+				}
+			}
+			if(pairQueueSize == 0) break;
+			int cell = pairQueue[--pairQueueSize];
+			pairQueued[cell] = false;
+			if(visible[cell] >= 0) evaluatePairs(cell);
+		}
+		return deductions - before;
+    }
+    
+    /**
+     * This method returns a location that has been deduced to be safe
+     * and is still covered, as an index (row * width + col).
+     * 
+     * @return the index of a safe covered location, or -1 if none
+     */
+    public int nextSafe() {
+		while(safeSize > 0) {
+			int index = safe[safeSize - 1];
+			if(visible[index] == COVERED) return index;
+			safeSize--;
+		}
+		return -1;
+    }
+    
+    public boolean isKnownSafe(int row, int col) {
+        return known[row * width + col] == SAFE;
+    }
+    
+    public boolean isKnownMine(int row, int col) {
+        return known[row * width + col] == MINE;
+    }
+    
+    /**
+     * This method uncovers deduced safe locations until the game ends
+     * or nothing more can be deduced. It never guesses and never 
+     * places flags.
+     * 
+     * @return the result of the grid afterwards
+     */
+    public Grid.Result solve() {
+		sync();
+		while(grid.getResult() == Grid.Result.NONE) {
+			deduce();
+			int cell = nextSafe();
+			if(cell < 0) break;
+			grid.uncoverAt(cell / width, cell % width);
+		}
+		return grid.getResult();
+    }
+    
+    /**
+     * This method estimates the chance that (row, col) holds a mine. 
+     * Known and flagged locations are 0 or 1. A location next to an 
+     * uncovered hint gets the highest share of remaining mines among 
+     * those hints. Any other covered location gets the share of the 
+     * unplaced mines among all unknown covered locations. This is a 
+     * heuristic for choosing guesses, not an exact probability.
+     * 
+     * @param row 
+     * @param col 
+     * @return the estimated probability of a mine at (row, col)
+     */
+    public double getMineProbability(int row, int col) {
+        return probability(row * width + col, density());
+    }
+    
+    /**
+     * This method returns the unknown covered location with the lowest
+     * estimated chance of holding a mine (see getMineProbability).
+     * 
+     * @return the index (row * width + col) of the best guess, or -1 
+     *         if no covered location is unknown
+     */
+    public int bestGuess() {
+		double density = density();
+		int best = -1;
+		double bestProbability = 2;
+		for(int index = 0; index < known.length; index++) {
+			if(known[index] == UNKNOWN && visible[index] == COVERED) {
+				double p = probability(index, density);
+				if(p < bestProbability) {
+					bestProbability = p;
+					best = index;
+				}
+			}
+		}
+		return best;
+    }
+    
+    public void onReveal(int row, int col, int hint) {
+		seen++;
+		int index = row * width + col;
+		visible[index] = (byte)hint;
+		enqueue(index);
+		enqueueNeighbors(index);
+    }
+    
+    public void onMine(int row, int col) {
+		seen++;
+		int index = row * width + col;
+		visible[index] = EXPLODED;
+		if(known[index] != MINE) {
+			known[index] = MINE;
+			knownMines++;
+		}
+		enqueueNeighbors(index);
+    }
+    
+    /**
+     * This method does nothing, since the solver follows the changes 
+     * one event at a time (see GridListener).
+     */
+    public void cellsChanged(Grid g, CellChanges changes) {}
+    
+    /**
+     * This method starts the solver over, since every location of the
+     * grid is covered again and has no flag. The uncovered count alone
+     * cannot tell, as a game that only had flags leaves it at 0.
+     * 
+     * @param g the grid that was reset
+     */
+    public void gridReset(Grid g) {
+		reset();
+    }
+    
+    public void onFlag(int row, int col) {
+		visible[row * width + col] = FLAGGED;
+		enqueueNeighbors(row * width + col);
+    }
+    
+    public void onUnflag(int row, int col) {
+		visible[row * width + col] = COVERED;
+		enqueueNeighbors(row * width + col);
+    }
+    
+    /**
+     * This method applies the single point rule to the constraint at
+     * `cell`.
+     * 
+     * @return false if the constraint still has unknown locations
+     *         that the rule could not settle
+     */
+    private boolean evaluateSingle(int cell) {
+		int size = constraint(cell, set);
+		if(size == 0) return true;
+		if(remaining == 0) {
+			markAll(set, size, SAFE);
+			return true;
+		}
+		if(remaining == size) {
+			markAll(set, size, MINE);
+			return true;
+		}
+		return false;
+    }
+    
+    /**
+     * This method applies the pair rule to the constraint at `cell` 
+     * against every constraint that shares an unknown location with 
+     * it. It stops at the first new deduction, since that deduction
+     * queues this constraint again.
+     *
+     * Both constraints are held as bit masks over the 7x7 window 
+     * centered on `cell` (every unknown location of a constraint 
+     * within two locations of `cell` falls inside it), so the set 
+     * operations of the rule are a few bitwise operations.
+     */
+    private void evaluatePairs(int cell) {
+		int row = cell / width;
+		int col = cell % width;
+		long maskA = window(cell, row, col);
+		int remainingA = remaining;
+		long visited = 0;
+		for(long bits = maskA; bits != 0; bits &= bits - 1) {
+			int bit = Long.numberOfTrailingZeros(bits);
+			int unknownRow = row + bit / WINDOW - WINDOW / 2;
+			int unknownCol = col + bit % WINDOW - WINDOW / 2;
+			int rowEnd = Math.min(unknownRow + 1, Math.min(row + 2, height - 1));
+			int colEnd = Math.min(unknownCol + 1, Math.min(col + 2, width - 1));
+			for(int i = Math.max(unknownRow - 1, Math.max(row - 2, 0)); i <= rowEnd; i++) {
+				for(int j = Math.max(unknownCol - 1, Math.max(col - 2, 0)); j <= colEnd; j++) {
+					int other = i * width + j;
+					long otherBit = windowBit(i - row, j - col);
+					if(other == cell || visible[other] < 0 || (visited & otherBit) != 0) continue;
+					visited |= otherBit;
+					long maskB = window(other, row, col);
+					int remainingB = remaining;
+					int onlyA = Long.bitCount(maskA & ~maskB);
+					int onlyB = Long.bitCount(maskB & ~maskA);
+					boolean changed = false;
+					if(remainingB - remainingA == onlyB) {
+						changed = markWindow(maskB & ~maskA, row, col, MINE) | markWindow(maskA & ~maskB, row, col, SAFE);
+					}
+					else if(remainingA - remainingB == onlyA) {
+						changed = markWindow(maskA & ~maskB, row, col, MINE) | markWindow(maskB & ~maskA, row, col, SAFE);
+					}
+					if(changed) return;
+				}
+			}
+		}
+    }
+    
+    private static long windowBit(int rowOffset, int colOffset) {
+        return 1L << ((rowOffset + WINDOW / 2) * WINDOW + colOffset + WINDOW / 2);
+    }
+    
+    /**
+     * This method returns the unknown covered neighbors of the 
+     * uncovered location `cell` as a mask over the window centered on
+     * (centerRow, centerCol), and sets `remaining` like constraint.
+     */
+    private long window(int cell, int centerRow, int centerCol) {
+		int row = cell / width;
+		int col = cell % width;
+		int mines = visible[cell];
+		long mask = 0;
+		int rowEnd = Math.min(row + 1, height - 1);
+		int colEnd = Math.min(col + 1, width - 1);
+		for(int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+			for(int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+				int index = i * width + j;
+				if(index == cell) continue;
+				if(known[index] == MINE || visible[index] == FLAGGED) {
+					mines--;
+				}
+				else if(known[index] == UNKNOWN && visible[index] == COVERED) {
+					mask |= windowBit(i - centerRow, j - centerCol);
+				}
+			}
+		}
+		remaining = mines;
+		return mask;
+    }
+    
+    /**
+     * This method marks every location in a mask over the window 
+     * centered on (centerRow, centerCol).
+     */
+    private boolean markWindow(long mask, int centerRow, int centerCol, byte value) {
+		boolean changed = false;
+		for(; mask != 0; mask &= mask - 1) {
+			int bit = Long.numberOfTrailingZeros(mask);
+			int row = centerRow + bit / WINDOW - WINDOW / 2;
+			int col = centerCol + bit % WINDOW - WINDOW / 2;
+			changed |= mark(row * width + col, value);
+		}
+		return changed;
+    }
+    
+    /**
+     * This method fills `set` with the unknown covered neighbors of the
+     * uncovered location `cell` and sets `remaining` to the number of
+     * mines among them (the hint minus the flags and known mines).
+     * 
+     * @return the number of unknown covered neighbors
+     */
+    private int constraint(int cell, int[] set) {
+		int row = cell / width;
+		int col = cell % width;
+		int mines = visible[cell];
+		int size = 0;
+		int rowEnd = Math.min(row + 1, height - 1);
+		int colEnd = Math.min(col + 1, width - 1);
+		for(int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+			for(int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+				int index = i * width + j;
+				if(index == cell) continue;
+				if(known[index] == MINE || visible[index] == FLAGGED) {
+					mines--;
+				}
+				else if(known[index] == UNKNOWN && visible[index] == COVERED) {
+					set[size++] = index;
+				}
+			}
+		}
+		remaining = mines;
+		return size;
+    }
+    
+    private boolean markAll(int[] set, int size, byte value) {
+		boolean changed = false;
+		for(int i = 0; i < size; i++) {
+			changed |= mark(set[i], value);
+		}
+		return changed;
+    }
+    
+    /**
+     * This method records a deduction about a covered location and 
+     * queues the constraints around it, which have just changed.
+     * 
+     * @return false if the location was already known
+     */
+    private boolean mark(int index, byte value) {
+		if(known[index] != UNKNOWN) return false;
+		known[index] = value;
+		deductions++;
+		if(value == MINE) {
+			knownMines++;
+		}
+		else {
+			if(safeSize == safe.length) safe = Arrays.copyOf(safe, safeSize * 2);
+			safe[safeSize++] = index;
+		}
+		enqueueNeighbors(index);
+		return true;
+    }
+    
+    private void enqueue(int index) {
+		if(queued[index]) return;
+		queued[index] = true;
+		if(queueSize == queue.length) queue = Arrays.copyOf(queue, queueSize * 2);
+		queue[queueSize++] = index;
+    }
+    
+    private void enqueueNeighbors(int index) {
+		int row = index / width;
+		int col = index % width;
+		int rowEnd = Math.min(row + 1, height - 1);
+		int colEnd = Math.min(col + 1, width - 1);
+		for(int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+			for(int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+				int neighbor = i * width + j;
+				if(neighbor != index) enqueue(neighbor);
+			}
+		}
+    }
+    
+    /**
+     * This method returns the share of the mines that are neither 
+     * flagged nor known among the covered locations that are neither 
+     * flagged nor known.
+     */
+    private double density() {
+		int unknown = 0;
+		int flaggedUnknown = 0;
+		for(int index = 0; index < known.length; index++) {
+			if(known[index] == UNKNOWN) {
+				if(visible[index] == COVERED) unknown++;
+				else if(visible[index] == FLAGGED) flaggedUnknown++;
+			}
+		}
+		if(unknown == 0) return 0;
+		int left = grid.getMines() - knownMines - flaggedUnknown;
+		return Math.max(0, Math.min(1, (double)left / unknown));
+    }
+    
+    private double probability(int index, double density) {
+		if(known[index] == MINE || visible[index] == FLAGGED) return 1;
+		if(known[index] == SAFE || visible[index] >= 0) return 0;
+		int row = index / width;
+		int col = index % width;
+		double best = -1;
+		int rowEnd = Math.min(row + 1, height - 1);
+		int colEnd = Math.min(col + 1, width - 1);
+		for(int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+			for(int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+				int neighbor = i * width + j;
+				if(neighbor != index && visible[neighbor] >= 0) {
+					int size = constraint(neighbor, set);
+					if(size > 0) best = Math.max(best, (double)remaining / size);
+				}
+			}
+		}
+		return best < 0 ? density : best;
+    }
+}
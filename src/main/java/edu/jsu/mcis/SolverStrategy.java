@@ -0,0 +1,30 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+
+/**
+ * This class is a MoveStrategy that plays with a Solver: it uncovers a
+ * location deduced to be safe when there is one, and otherwise the 
+ * location the solver thinks is least likely to hold a mine. Each 
+ * thread keeps its own solver for the grid it is playing, and the 
+ * solver resynchronizes itself when that grid is reset.
+ */
+public class SolverStrategy implements MoveStrategy {
+    private final ThreadLocal<Solver> solvers = new ThreadLocal<>();
+    
+    public boolean move(Grid grid, Random random) {
+		Solver solver = solvers.get();
+		if(solver == null || solver.getGrid() != grid) {
+			if(solver != null) solver.detach();
+			solver = new Solver(grid);
+			solvers.set(solver);
+		}
+		solver.sync();
+		solver.deduce();
+		int cell = solver.nextSafe();
+		if(cell < 0) cell = solver.bestGuess();
+		if(cell < 0) return false;
+		grid.uncoverAt(cell / grid.getWidth(), cell % grid.getWidth());
+		return true;
+    }
+}
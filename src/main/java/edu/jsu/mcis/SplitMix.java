@@ -0,0 +1,100 @@
+package edu.jsu.mcis;
+
+/**
+ * This class is a small, fast, counter-based pseudorandom number 
+ * generator: the n-th long it returns is a fixed mixing function of 
+ * seed + n * GOLDEN_GAMMA. It produces exactly the stream of longs 
+ * that `new java.util.SplittableRandom(seed)` does, but unlike 
+ * SplittableRandom it can be reseeded in place (see setSeed), so a 
+ * Grid can start game after game with no garbage, and unlike 
+ * java.util.Random it has no atomic state to contend on.
+ *
+ * Seeds for games and tiles are derived from a parent seed with 
+ * derive, which mixes the parent and an index so that derived seeds
+ * are as unrelated as independently chosen ones. Any game can then be
+ * rebuilt from the one number that was logged for it.
+ *
+ * An instance is not thread-safe; give each thread its own, derived
+ * from one parent seed.
+ */
+public final class SplitMix {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    
+    private long state;
+    
+    public SplitMix(long seed) {
+		this.state = seed;
+    }
+    
+    /**
+     * This method restarts the generator as if it were new.
+     * 
+     * @param seed the new seed
+     */
+    public void setSeed(long seed) {
+		this.state = seed;
+    }
+    
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+    
+    /**
+     * This method returns a uniformly distributed int in [0, bound).
+     * 
+     * @param bound the bound, which must be positive
+     * @return the next int below the bound
+     */
+    public int nextInt(int bound) {
+		if(bound <= 0) throw new IllegalArgumentException("Illegal bound " + bound);
+		int r = (int)(nextLong() >>> 33);
+		int m = bound - 1;
+		if((bound & m) == 0) return (int)((bound * (long)r) >> 31);
+		for(int u = r; u - (r = u % bound) + m < 0; u = (int)(nextLong() >>> 33));
+        return r;
+    }
+    
+    /**
+     * This method returns a uniformly distributed long in [0, bound).
+     * 
+     * @param bound the bound, which must be positive
+     * @return the next long below the bound
+     */
+    public long nextLong(long bound) {
+		if(bound <= 0) throw new IllegalArgumentException("Illegal bound " + bound);
+		long r = nextLong();
+		long m = bound - 1;
+		if((bound & m) == 0) return r & m;
+		for(long u = r >>> 1; u + m - (r = u % bound) < 0; u = nextLong() >>> 1);
+        return r;
+    }
+    
+    /**
+     * This method returns a uniformly distributed double in [0, 1).
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+    
+    /**
+     * This method returns the seed of child number `index` of the
+     * parent seed. Different indices (or parents) give unrelated seeds.
+     * 
+     * @param seed the parent seed
+     * @param index the number of the child
+     * @return the seed of the child
+     */
+    public static long derive(long seed, long index) {
+        return mix(seed + index * GOLDEN_GAMMA);
+    }
+    
+    /**
+     * This method is the mixing function (David Stafford's variant 13
+     * of MurmurHash3's 64-bit finalizer).
+     */
+    private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
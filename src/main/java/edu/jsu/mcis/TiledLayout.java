@@ -0,0 +1,281 @@
+package edu.jsu.mcis;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class lays out the mines and hints of very large boards on a
+ * ForkJoinPool. The board is cut into tiles of TILE_ROWS whole rows,
+ * and every phase works on tiles at the same time:
+ *
+ *     clear  every cell of every tile is returned to the default state
+ *     count  the mines are shared out among the tiles, by splitting 
+ *            the tiles in half, drawing how many of the mines of the
+ *            whole go to the left half from the hypergeometric 
+ *            distribution, and splitting each half again, so the 
+ *            counts always add up to exactly the number of mines
+ *     place  each tile places its own count with Floyd's sampling
+ *            algorithm, as Grid does for the whole board
+ *     hint   each band of rows counts the mines around its cells, 
+ *            reading the rows just above and below it (its halo), 
+ *            which no longer change once the mines are placed
+ *
+ * Counting and placing are done together, each split and each tile
+ * with a SplitMix whose seed is derived (see SplitMix.derive) from the
+ * layout seed and its own position in the split. The layout therefore depends only on the 
+ * seed and the size of the board, never on how many threads do the
+ * work or in what order, and any tile can be rebuilt on its own.
+ *
+ * The hypergeometric draw is exact (one Bernoulli trial per mine) 
+ * when either the mines or the safe locations of a split number at 
+ * most EXACT_DRAWS, and otherwise uses the normal approximation with
+ * the finite population correction, which at those sizes is far 
+ * closer than any player could tell.
+ */
+final class TiledLayout {
+    static final int TILE_ROWS = 128;
+    static final int EXACT_DRAWS = 256;
+    
+    private static final int HINT_ROWS = 64;
+    
+    private TiledLayout() {}
+    
+    /**
+     * This method clears every cell of the board in parallel and zeroes
+     * its running counts.
+     * 
+     * @param pool the pool to run on
+     * @param board the board
+     */
+    static void clear(ForkJoinPool pool, Board board) {
+		pool.invoke(new ClearTask(board, 0, board.getHeight()));
+		board.clearCounts();
+    }
+    
+    /**
+     * This method places `mines` mines and the hints on a cleared 
+     * board in parallel.
+     * 
+     * @param pool the pool to run on
+     * @param board the board, which must be cleared
+     * @param mines the number of mines
+     * @param seed the seed of the layout
+     * @param excluded the indices (in ascending order) to keep free
+     * @param excludedCount the number of indices in `excluded`
+     * @param tileRows the number of rows in a tile
+     */
+    static void generate(ForkJoinPool pool, Board board, int mines, long seed, int[] excluded, int excludedCount, int tileRows) {
+		placeMines(pool, board, mines, seed, excluded, excludedCount, tileRows);
+		placeHints(pool, board);
+    }
+    
+    /**
+     * This method places `mines` mines on a cleared board in parallel,
+     * without their hints. The arguments are those of generate.
+     */
+    static void placeMines(ForkJoinPool pool, Board board, int mines, long seed, int[] excluded, int excludedCount, int tileRows) {
+		int tiles = (board.getHeight() + tileRows - 1) / tileRows;
+		Layout layout = new Layout(board, seed, Arrays.copyOf(excluded, excludedCount), tileRows);
+		pool.invoke(new MineTask(layout, 0, tiles, mines));
+    }
+    
+    /**
+     * This method counts the hints of every row of the board in 
+     * parallel, from its mines.
+     * 
+     * @param pool the pool to run on
+     * @param board the board, whose hints must be 0
+     */
+    static void placeHints(ForkJoinPool pool, Board board) {
+		pool.invoke(new HintTask(board, 0, board.getHeight()));
+    }
+    
+    /**
+     * This method returns the number of successes in `n` draws without
+     * replacement from a population of `total`, of which `marked` are
+     * successes.
+     * 
+     * @param random the generator to draw with
+     * @param total the size of the population
+     * @param marked the number of successes in the population
+     * @param n the number of draws
+     * @return the number of successes drawn
+     */
+    static long hypergeometric(SplitMix random, long total, long marked, long n) {
+		if(marked == 0 || n == 0) return 0;
+		if(marked == total) return n;
+		if(n == total) return marked;
+		if(marked <= EXACT_DRAWS) {
+			long left = n;
+			long hits = 0;
+			for(long remaining = total, i = 0; i < marked; i++, remaining--) {
+				if(random.nextLong(remaining) < left) {
+					hits++;
+					left--;
+				}
+			}
+			return hits;
+		}
+		if(total - marked <= EXACT_DRAWS) {
+			return n - hypergeometric(random, total, total - marked, n);
+		}
+		double p = (double)n / total;
+		double mean = marked * p;
+		double variance = marked * p * (1 - p) * (total - marked) / (total - 1);
+		long hits = Math.round(mean + Math.sqrt(variance) * gaussian(random));
+		return Math.max(Math.max(0, marked - (total - n)), Math.min(Math.min(marked, n), hits));
+    }
+    
+    /**
+     * This method returns a standard normal value, by the polar method.
+     */
+    private static double gaussian(SplitMix random) {
+		double u, v, s;
+		do {
+			u = 2 * random.nextDouble() - 1;
+			v = 2 * random.nextDouble() - 1;
+			s = u * u + v * v;
+		} while(s >= 1 || s == 0);
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+    
+    /**
+     * This class holds what every MineTask of one layout shares.
+     */
+    private static class Layout {
+        final Board board;
+        final long seed;
+        final int[] excluded;
+        final int tileRows;
+        
+        Layout(Board board, long seed, int[] excluded, int tileRows) {
+			this.board = board;
+			this.seed = seed;
+			this.excluded = excluded;
+			this.tileRows = tileRows;
+        }
+        
+        int start(int tile) {
+            return (int)Math.min((long)tile * tileRows, board.getHeight()) * board.getWidth();
+        }
+        
+        /**
+         * This method returns the number of locations in tiles 
+         * [fromTile, toTile) that may hold a mine.
+         */
+        long available(int fromTile, int toTile) {
+			int start = start(fromTile);
+			int end = start(toTile);
+			long count = end - start;
+			for(int index : excluded) {
+				if(index >= start && index < end) count--;
+			}
+            return count;
+        }
+        
+        /**
+         * This method places `mines` mines in one tile with Floyd's 
+         * sampling algorithm, skipping the excluded indices.
+         */
+        void place(int tile, int mines) {
+			int start = start(tile);
+			int n = (int)available(tile, tile + 1);
+			SplitMix random = new SplitMix(SplitMix.derive(seed, -1 - tile));
+			for(int j = n - mines; j < n; j++) {
+				int t = availableIndex(start, random.nextInt(j + 1));
+				board.setMine(board.hasMine(t) ? availableIndex(start, j) : t, true);
+			}
+        }
+        
+        private int availableIndex(int start, int k) {
+			int index = start + k;
+			for(int i = 0; i < excluded.length; i++) {
+				if(excluded[i] >= start && excluded[i] <= index) index++;
+			}
+            return index;
+        }
+    }
+    
+    /**
+     * This task shares `mines` mines among tiles [fromTile, toTile) and
+     * places them.
+     */
+    private static class MineTask extends RecursiveAction {
+        private final Layout layout;
+        private final int fromTile;
+        private final int toTile;
+        private final long mines;
+        
+        MineTask(Layout layout, int fromTile, int toTile, long mines) {
+			this.layout = layout;
+			this.fromTile = fromTile;
+			this.toTile = toTile;
+			this.mines = mines;
+        }
+        
+        protected void compute() {
+			if(toTile - fromTile == 1) {
+				layout.place(fromTile, (int)mines);
+				return;
+			}
+			int mid = (fromTile + toTile) >>> 1;
+			SplitMix random = new SplitMix(SplitMix.derive(layout.seed, ((long)fromTile << 32) | toTile));
+			long left = hypergeometric(random, layout.available(fromTile, toTile), mines, layout.available(fromTile, mid));
+			invokeAll(new MineTask(layout, fromTile, mid, left), new MineTask(layout, mid, toTile, mines - left));
+        }
+    }
+    
+    /**
+     * This task clears a range of rows, splitting the range in half 
+     * until it is small enough to do directly.
+     */
+    private static class ClearTask extends RecursiveAction {
+        private final Board board;
+        private final int fromRow;
+        private final int toRow;
+        
+        ClearTask(Board board, int fromRow, int toRow) {
+			this.board = board;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+        }
+        
+        protected void compute() {
+			if(toRow - fromRow <= TILE_ROWS) {
+				board.clearCells(fromRow * board.getWidth(), toRow * board.getWidth());
+			}
+			else {
+				int mid = (fromRow + toRow) >>> 1;
+				invokeAll(new ClearTask(board, fromRow, mid), new ClearTask(board, mid, toRow));
+			}
+        }
+    }
+    
+    /**
+     * This task computes the hints for a range of rows, splitting the
+     * range in half until it is small enough to do directly. Each task
+     * only writes the hints of its own rows; it reads the mine bits of
+     * the rows around them, which do not change while hints are placed.
+     */
+    private static class HintTask extends RecursiveAction {
+        private final Board board;
+        private final int fromRow;
+        private final int toRow;
+        
+        HintTask(Board board, int fromRow, int toRow) {
+			this.board = board;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+        }
+        
+        protected void compute() {
+			if(toRow - fromRow <= HINT_ROWS) {
+				board.countMineHints(fromRow, toRow);
+			}
+			else {
+				int mid = (fromRow + toRow) >>> 1;
+				invokeAll(new HintTask(board, fromRow, mid), new HintTask(board, mid, toRow));
+			}
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+public class BitboardTest {
+
+    @Test
+    public final void testHintsMatchGrid() {
+        int[] widths = {1, 7, 63, 64, 65, 130};
+        for(int width : widths) {
+            Grid grid = new Grid(width, 9, width * 2, (long)width);
+            Bitboard bits = grid.getBitboard();
+            assertEquals(width * 2, Bitboard.count(bits.getMines()));
+            for(int hint = 0; hint <= 8; hint++) {
+                long[] set = bits.withHint(hint);
+                for(int row = 0; row < grid.getHeight(); row++) {
+                    for(int col = 0; col < width; col++) {
+                        Location location = grid.getLocation(row, col);
+                        boolean expected = !location.hasMine() && location.getHint() == hint;
+                        assertEquals(expected, bits.contains(set, row, col));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public final void testCascadeMatchesUncoverAt() {
+        int[] widths = {10, 64, 100, 129};
+        for(int width : widths) {
+            Grid grid = new Grid(width, 40, width * 3, 5L);
+            grid.placeFlagAt(3, 3);
+            Random random = new Random(width);
+            while(grid.getResult() == Grid.Result.NONE) {
+                int row = random.nextInt(grid.getHeight());
+                int col = random.nextInt(width);
+                Bitboard before = grid.getBitboard();
+                long[] cascade = before.cascade(row, col);
+                grid.uncoverAt(row, col);
+                long[] after = grid.getBitboard().getUncovered();
+                for(int k = 0; k < after.length; k++) {
+                    assertEquals(after[k] & ~before.getUncovered()[k], cascade[k]);
+                }
+                assertEquals(grid.getResult(), grid.getBitboard().getResult());
+            }
+        }
+    }
+
+    @Test
+    public final void testFrontierAndResult() {
+        Grid grid = new Grid(70, 20, 150, 11L, true);
+        assertEquals(Grid.Result.NONE, grid.getBitboard().getResult());
+        grid.uncoverAt(10, 35);
+        Bitboard bits = grid.getBitboard();
+        long[] frontier = bits.frontier();
+        for(int row = 0; row < grid.getHeight(); row++) {
+            for(int col = 0; col < grid.getWidth(); col++) {
+                boolean expected = false;
+                if(grid.getLocation(row, col).getType() == Location.Type.COVERED) {
+                    for(int i = Math.max(row - 1, 0); i <= Math.min(row + 1, grid.getHeight() - 1); i++) {
+                        for(int j = Math.max(col - 1, 0); j <= Math.min(col + 1, grid.getWidth() - 1); j++) {
+                            if(grid.getLocation(i, j).getType() == Location.Type.UNCOVERED) expected = true;
+                        }
+                    }
+                }
+                assertEquals(expected, bits.contains(frontier, row, col));
+            }
+        }
+
+        assertEquals(grid.getFlagCount(), Bitboard.count(bits.getFlagged()));
+        int flags = grid.getFlagCount();
+        grid.placeFlagAt(0, 0);
+        grid.placeFlagAt(19, 69);
+        assertEquals(flags, Bitboard.count(bits.getFlagged()));
+        Bitboard flagged = grid.getBitboard();
+        assertEquals(grid.getFlagCount(), Bitboard.count(flagged.getFlagged()));
+        assertTrue(flagged.contains(flagged.getFlagged(), 19, 69));
+        grid.reset();
+        bits = grid.getBitboard();
+        assertEquals(0, Bitboard.count(bits.getUncovered()) + Bitboard.count(bits.getFlagged()));
+        
+        Bitboard won = new Bitboard(65, 2);
+        for(int col = 0; col < 65; col++) {
+            won.set(won.getUncovered(), 0, col, true);
+            won.set(won.getMines(), 1, col, true);
+        }
+        assertEquals(Grid.Result.WIN, won.getResult());
+        won.set(won.getUncovered(), 1, 64, true);
+        assertEquals(Grid.Result.LOSE, won.getResult());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public final void testNeighborCountMustBeAHint() {
+        new Bitboard(8, 8).withNeighborCount(new long[8], 16);
+    }
+}
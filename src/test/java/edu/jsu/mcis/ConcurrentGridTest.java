@@ -0,0 +1,138 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class ConcurrentGridTest {
+    
+    @Test
+    public final void testPlaysLikeGrid() {
+        Grid grid = new Grid(50, 40, 300, new Random(7));
+        ConcurrentGrid concurrent = new ConcurrentGrid(50, 40, 300, new Random(7));
+        Random moves = new Random(1);
+        for(int move = 0; move < 400 && grid.getResult() == Grid.Result.NONE; move++) {
+            int row = moves.nextInt(40);
+            int col = moves.nextInt(50);
+            if(moves.nextInt(5) == 0) {
+                grid.placeFlagAt(row, col);
+                concurrent.placeFlagAt(row, col);
+            }
+            else {
+                int before = grid.getUncoveredCount();
+                grid.uncoverAt(row, col);
+                assertEquals(grid.getUncoveredCount() - before, concurrent.uncoverAt(row, col));
+            }
+        }
+        assertEquals(grid.getResult(), concurrent.getResult());
+        assertEquals(grid.getFlagCount(), concurrent.getFlagCount());
+        for(int i = 0; i < 40; i++) {
+            for(int j = 0; j < 50; j++) {
+                assertEquals(grid.getLocation(i, j).getType(), concurrent.getLocation(i, j).getType());
+                assertEquals(grid.getLocation(i, j).getHint(), concurrent.getLocation(i, j).getHint());
+            }
+        }
+        concurrent.verifyCounts();
+    }
+    
+    @Test
+    public final void testResetCoversAndPlacesMinesAgain() {
+        ConcurrentGrid grid = new ConcurrentGrid(40, 35, 200, new Random(3));
+        grid.placeFlagAt(0, 0);
+        for(int i = 0; i < 35; i += 3) grid.uncoverAt(i, i);
+        grid.reset();
+        assertEquals(0, grid.getUncoveredCount());
+        assertEquals(0, grid.getFlagCount());
+        assertEquals(Grid.Result.NONE, grid.getResult());
+        int mines = 0;
+        for(int i = 0; i < 35; i++) {
+            for(int j = 0; j < 40; j++) {
+                Location loc = grid.getLocation(i, j);
+                assertEquals(Location.Type.COVERED, loc.getType());
+                if(loc.hasMine()) mines++;
+            }
+        }
+        assertEquals(200, mines);
+        grid.verifyCounts();
+    }
+    
+    @Test
+    public final void testOverlappingCascadesUncoverEachLocationOnce() throws Exception {
+        final ConcurrentGrid grid = new ConcurrentGrid(300, 300, 0, new Random(1));
+        final AtomicLong total = new AtomicLong();
+        final AtomicInteger winners = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int t = 0; t < 32; t++) {
+            final int seed = t;
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    Random random = new Random(seed);
+                    try { start.await(); } catch(InterruptedException e) { return; }
+                    int uncovered = grid.uncoverAt(random.nextInt(300), random.nextInt(300));
+                    total.addAndGet(uncovered);
+                    if(uncovered > 0) winners.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for(Thread thread : threads) thread.join();
+        assertEquals(1, winners.get());
+        assertEquals(300 * 300, total.get());
+        assertEquals(Grid.Result.WIN, grid.getResult());
+        grid.verifyCounts();
+    }
+    
+    @Test
+    public final void testStressKeepsBoardConsistent() throws Exception {
+        final ConcurrentGrid grid = new ConcurrentGrid(256, 256, 5000, new Random(3));
+        final AtomicLong uncovered = new AtomicLong();
+        final AtomicLong flags = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for(int t = 0; t < 16; t++) {
+            final int seed = t;
+            futures.add(pool.submit(new Runnable() {
+                public void run() {
+                    Random random = new Random(seed);
+                    CellChanges changes = new CellChanges(256);
+                    for(int move = 0; move < 20000; move++) {
+                        int row = random.nextInt(256);
+                        int col = random.nextInt(256);
+                        if(random.nextInt(10) == 0) {
+                            if(grid.placeFlagAt(row, col)) flags.incrementAndGet();
+                        }
+                        else {
+                            changes.clear();
+                            int count = grid.uncoverAt(row, col, changes);
+                            assertEquals(count, changes.size());
+                            uncovered.addAndGet(count);
+                        }
+                    }
+                }
+            }));
+        }
+        for(Future<?> future : futures) future.get();
+        pool.shutdown();
+        grid.verifyCounts();
+        assertEquals(uncovered.get(), grid.getUncoveredCount());
+        assertEquals(flags.get(), grid.getFlagCount());
+        for(int i = 0; i < 256; i++) {
+            for(int j = 0; j < 256; j++) {
+                Location loc = grid.getLocation(i, j);
+                if(loc.getType() != Location.Type.UNCOVERED || loc.hasMine() || loc.getHint() != 0) continue;
+                for(int r = Math.max(i - 1, 0); r <= Math.min(i + 1, 255); r++) {
+                    for(int c = Math.max(j - 1, 0); c <= Math.min(j + 1, 255); c++) {
+                        assertTrue("(" + r + ", " + c + ") next to an open 0 is covered", 
+                                   grid.getLocation(r, c).getType() != Location.Type.COVERED);
+                    }
+                }
+            }
+        }
+    }
+}
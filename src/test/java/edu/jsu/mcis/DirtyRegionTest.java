@@ -0,0 +1,59 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.awt.Rectangle;
+
+public class DirtyRegionTest {
+    
+    private static CellChanges batch(int width, int... indexAndInfo) {
+        CellChanges changes = new CellChanges(width);
+        for(int i = 0; i < indexAndInfo.length; i += 2) {
+            changes.add(indexAndInfo[i], indexAndInfo[i + 1]);
+        }
+        return changes;
+    }
+    
+    @Test
+    public final void testBoundsCoverEveryChange() {
+        DirtyRegion region = new DirtyRegion(10, 10, false);
+        assertTrue(region.isEmpty());
+        assertNull(region.takeBounds());
+        region.add(batch(10, 23, 1, 25, 0));
+        region.add(batch(10, 71, CellChanges.FLAG));
+        assertFalse(region.isEmpty());
+        assertEquals(new Rectangle(1, 2, 5, 6), region.takeBounds());
+        assertTrue(region.isEmpty());
+        assertNull(region.takeBounds());
+    }
+    
+    @Test
+    public final void testDrainKeepsLatestInfoOnce() {
+        DirtyRegion region = new DirtyRegion(4, 4, true);
+        region.add(batch(4, 5, CellChanges.FLAG, 2, 3));
+        region.add(batch(4, 5, CellChanges.UNFLAG));
+        region.add(batch(4, 5, CellChanges.FLAG));
+        int[] cells = new int[16];
+        int[] infos = new int[16];
+        assertEquals(2, region.drain(cells, infos));
+        assertEquals(2, cells[0]);
+        assertEquals(3, infos[0]);
+        assertEquals(5, cells[1]);
+        assertEquals(CellChanges.FLAG, infos[1]);
+        assertTrue(region.isEmpty());
+        assertEquals(0, region.drain(cells, infos));
+    }
+    
+    @Test
+    public final void testDrainCellsOnly() {
+        DirtyRegion region = new DirtyRegion(4, 4, true);
+        region.add(batch(4, 9, CellChanges.FLAG));
+        region.add(batch(4, 9, CellChanges.UNFLAG, 9, 2, 1, 0));
+        int[] cells = new int[16];
+        assertEquals(2, region.drain(cells));
+        assertEquals(1, cells[0]);
+        assertEquals(9, cells[1]);
+        assertTrue(region.isEmpty());
+    }
+}
@@ -0,0 +1,175 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+public class GameServerTest {
+    private GameServer server;
+    private Thread thread;
+    private InetSocketAddress address;
+    
+    @Before
+    public final void setUp() throws IOException {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        thread = server.start();
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+    
+    @After
+    public final void tearDown() {
+        server.close();
+    }
+    
+    @Test
+    public final void testMovesMatchLocalGrid() throws IOException {
+        Grid local = new Grid(30, 16, 99, 21, true);
+        try(GameClient client = new GameClient(address)) {
+            int game = client.newGame(30, 16, 99, 21);
+            CellChanges changes = new CellChanges(30);
+            Grid.Result result = client.move(game, MoveJournal.UNCOVER, 8, 15, changes);
+            local.uncoverAt(8, 15);
+            assertEquals(local.getResult(), result);
+            assertEquals(local.getUncoveredCount(), changes.size());
+            for(int i = 0; i < changes.size(); i++) {
+                Location loc = local.getLocation(changes.getRow(i), changes.getCol(i));
+                assertEquals(Location.Type.UNCOVERED, loc.getType());
+                assertEquals(loc.getHint(), changes.getInfo(i));
+            }
+            changes.clear();
+            client.move(game, MoveJournal.FLAG, 0, 0, changes);
+            assertEquals(1, changes.size());
+            assertEquals(CellChanges.FLAG, changes.getInfo(0));
+            changes.clear();
+            client.move(game, MoveJournal.FLAG, 0, 0, changes);
+            assertEquals(0, changes.size());
+            client.endGame(game);
+        }
+    }
+    
+    @Test
+    public final void testPlayersShareGames() throws IOException {
+        try(GameClient first = new GameClient(address); GameClient second = new GameClient(address)) {
+            int game = first.newGame(9, 9, 10, 5);
+            CellChanges changes = new CellChanges(9);
+            first.move(game, MoveJournal.FLAG, 2, 2, changes);
+            changes.clear();
+            second.move(game, MoveJournal.UNFLAG, 2, 2, changes);
+            assertEquals(1, changes.size());
+            assertEquals(CellChanges.UNFLAG, changes.getInfo(0));
+            second.endGame(game);
+        }
+    }
+    
+    @Test
+    public final void testBadRequestsAreRefused() throws IOException {
+        try(GameClient client = new GameClient(address)) {
+            try {
+                client.move(12345, MoveJournal.UNCOVER, 0, 0, new CellChanges(1));
+                fail("moved in a game that does not exist");
+            }
+            catch(IOException e) {
+                assertTrue(e.getMessage().contains("12345"));
+            }
+            try {
+                client.newGame(5, 5, 26, 0);
+                fail("made a game with too many mines");
+            }
+            catch(IOException e) {}
+            int game = client.newGame(5, 5, 3, 0);
+            client.endGame(game);
+        }
+    }
+    
+    @Test
+    public final void testClosedConnectionEndsItsGames() throws Exception {
+        try(GameClient other = new GameClient(address)) {
+            int kept = other.newGame(9, 9, 10, 1);
+            int dropped;
+            try(GameClient client = new GameClient(address)) {
+                for(int i = 0; i < 3; i++) client.newGame(9, 9, 10, i);
+                dropped = client.newGame(9, 9, 10, 3);
+                client.move(dropped, MoveJournal.UNCOVER, 4, 4, new CellChanges(9));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            boolean ended = false;
+            while(!ended && System.currentTimeMillis() < deadline) {
+                try {
+                    other.move(dropped, MoveJournal.FLAG, 0, 0, new CellChanges(9));
+                    Thread.sleep(10);
+                }
+                catch(IOException e) {
+                    assertTrue(e.getMessage().contains(String.valueOf(dropped)));
+                    ended = true;
+                }
+            }
+            assertTrue(ended);
+            other.move(kept, MoveJournal.FLAG, 0, 0, new CellChanges(9));
+            server.close();
+            thread.join();
+            assertEquals(1, server.getGameCount());
+        }
+    }
+    
+    @Test
+    public final void testClientThatDoesNotReadIsNotBuffered() throws Exception {
+        final int moves = 1 << 21;
+        try(Socket socket = new Socket(address.getAddress(), address.getPort())) {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out.writeInt(21);
+            out.writeByte(GameServer.NEW_GAME);
+            out.writeInt(9);
+            out.writeInt(9);
+            out.writeInt(10);
+            out.writeLong(1);
+            out.flush();
+            assertEquals(5, in.readInt());
+            assertEquals(GameServer.GAME, in.readByte());
+            final int game = in.readInt();
+            final IOException[] failure = new IOException[1];
+            Thread writer = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for(int i = 0; i < moves; i++) {
+                            out.writeInt(14);
+                            out.writeByte(GameServer.MOVE);
+                            out.writeInt(game);
+                            out.writeByte(i % 2 == 0 ? MoveJournal.FLAG : MoveJournal.UNFLAG);
+                            out.writeInt(0);
+                            out.writeInt(0);
+                        }
+                        out.flush();
+                    }
+                    catch(IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            writer.start();
+            writer.join(2000);
+            assertTrue("the server read every move without its answers being read", writer.isAlive());
+            byte[] answer = new byte[15];
+            for(int i = 0; i < moves; i++) {
+                assertEquals(15, in.readInt());
+                in.readFully(answer);
+                assertEquals(GameServer.DIFF, answer[0]);
+            }
+            writer.join();
+            assertNull(failure[0]);
+        }
+    }
+    
+    @Test
+    public final void testLoadGeneratorAgainstLocalhost() throws IOException {
+        LoadGenerator generator = new LoadGenerator(address, 8, 64, 30, 16, 99);
+        LoadResult result = generator.run(1, 5000);
+        assertEquals(8 * 5000, result.getMoves());
+        assertTrue(result.getGames() > 0);
+        assertTrue(result.getLatencyNanos(0.5) <= result.getLatencyNanos(0.99));
+        assertTrue(result.getLatencyNanos(0.99) <= result.getLatencyNanos(1));
+    }
+}
@@ -0,0 +1,121 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class GridIOTest {
+    private Path file;
+    
+    @Before
+    public final void setUp() throws IOException {
+        file = Files.createTempFile("grid", ".msw");
+    }
+    
+    @After
+    public final void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    @Test
+    public final void testSaveAndLoadGameInProgress() throws IOException {
+        Grid grid = new Grid(30, 16, 99, new Random(4), true);
+        grid.uncoverAt(8, 15);
+        grid.placeFlagAt(0, 0);
+        GridIO.save(grid, file);
+        assertEquals(GridIO.HEADER_SIZE + 30 * 16, Files.size(file));
+        Grid loaded = GridIO.load(file);
+        assertEquals(30, loaded.getWidth());
+        assertEquals(16, loaded.getHeight());
+        assertEquals(99, loaded.getMines());
+        assertTrue(loaded.isGenerated());
+        assertTrue(loaded.isSafeFirstClick());
+        assertEquals(grid.toString(), loaded.toString());
+        assertEquals(grid.getUncoveredCount(), loaded.getUncoveredCount());
+        assertEquals(1, loaded.getFlagCount());
+        assertTrue(loaded.isFlagAt(0, 0));
+        for(int i = 0; i < 16; i++) {
+            for(int j = 0; j < 30; j++) {
+                assertEquals(grid.getLocation(i, j).getType(), loaded.getLocation(i, j).getType());
+            }
+        }
+        assertEquals(grid.getResult(), loaded.getResult());
+    }
+    
+    @Test
+    public final void testSaveAndLoadUngeneratedGrid() throws IOException {
+        GridIO.save(new Grid(9, 9, 10, new Random(), true), file);
+        Grid loaded = GridIO.load(file);
+        assertFalse(loaded.isGenerated());
+        loaded.uncoverAt(4, 4);
+        assertTrue(loaded.isGenerated());
+        assertEquals(Location.Type.UNCOVERED, loaded.getLocation(4, 4).getType());
+    }
+    
+    @Test
+    public final void testSeededGridKeepsItsSeed() throws IOException {
+        Grid grid = new Grid(30, 16, 99, 123456789L, false);
+        GridIO.save(grid, file);
+        Grid loaded = GridIO.load(file);
+        assertTrue(loaded.hasSeed());
+        assertEquals(123456789L, loaded.getSeed());
+        grid.reset();
+        loaded.reset();
+        assertEquals(grid.toString(), loaded.toString());
+    }
+    
+    @Test
+    public final void testLargeGridRoundTrip() throws IOException {
+        Grid grid = new Grid(4000, 4000, 1600000, new Random(8));
+        grid.uncoverAt(0, 0);
+        GridIO.save(grid, file);
+        Grid loaded = GridIO.load(file);
+        assertEquals(grid.getUncoveredCount(), loaded.getUncoveredCount());
+        assertEquals(grid.getResult(), loaded.getResult());
+        assertEquals(grid.toString(), loaded.toString());
+    }
+    
+    @Test(expected = IOException.class)
+    public final void testLoadRejectsOtherFiles() throws IOException {
+        Files.write(file, "not a grid, just some text".getBytes("UTF-8"));
+        GridIO.load(file);
+    }
+    
+    @Test(expected = IOException.class)
+    public final void testLoadRejectsTruncatedFile() throws IOException {
+        GridIO.save(new Grid(8, 8, 10), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        GridIO.load(file);
+    }
+    
+    @Test(expected = IOException.class)
+    public final void testLoadRejectsCorruptCells() throws IOException {
+        GridIO.save(new Grid(8, 8, 10), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[GridIO.HEADER_SIZE + 5] ^= 1 << 4;
+        Files.write(file, bytes);
+        GridIO.load(file);
+    }
+    
+    @Test
+    public final void testLoadRejectsWrongHint() throws IOException {
+        Grid grid = new Grid(8, 8, 10, 3L, false);
+        GridIO.save(grid, file);
+        byte[] bytes = Files.readAllBytes(file);
+        int index = 0;
+        while(grid.getLocation(index / 8, index % 8).getHint() == 8) index++;
+        bytes[GridIO.HEADER_SIZE + index] ^= 1;
+        Files.write(file, bytes);
+        try {
+            GridIO.load(file);
+            fail("loaded a grid with a wrong hint");
+        }
+        catch(IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("index " + index));
+        }
+    }
+}
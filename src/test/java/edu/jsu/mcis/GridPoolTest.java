@@ -0,0 +1,85 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+public class GridPoolTest {
+    
+    private static void assertSameLayout(Grid expected, Grid actual) {
+        for(int i = 0; i < expected.getHeight(); i++) {
+            for(int j = 0; j < expected.getWidth(); j++) {
+                Location e = expected.getLocation(i, j);
+                Location a = actual.getLocation(i, j);
+                assertEquals(e.hasMine(), a.hasMine());
+                assertEquals(e.getHint(), a.getHint());
+                assertEquals(e.getType(), a.getType());
+            }
+        }
+    }
+    
+    @Test
+    public final void testRecycledGridMatchesNewGrid() {
+        GridPool pool = new GridPool();
+        Grid first = pool.acquire(30, 16, 99, 1, true);
+        first.uncoverAt(8, 8);
+        first.placeFlagAt(0, 0);
+        pool.release(first);
+        Grid second = pool.acquire(30, 16, 99, 2, true);
+        assertSame(first, second);
+        assertEquals(0, second.getUncoveredCount());
+        assertEquals(0, second.getFlagCount());
+        second.uncoverAt(8, 8);
+        Grid fresh = new Grid(30, 16, 99, 2, true);
+        fresh.uncoverAt(8, 8);
+        assertSameLayout(fresh, second);
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+        
+        pool.release(second);
+        Grid eager = pool.acquire(30, 16, 99, 2, false);
+        assertNotSame(second, eager);
+        assertSameLayout(new Grid(30, 16, 99, 2, false), eager);
+    }
+    
+    @Test
+    public final void testReleaseRemovesListeners() {
+        GridPool pool = new GridPool();
+        Grid grid = pool.acquire(9, 9, 10, 0, true);
+        final int[] calls = new int[1];
+        grid.addChangeListener(new CellChangeListener() {
+            public void cellsChanged(Grid g, CellChanges changes) {
+                calls[0]++;
+            }
+            public void gridReset(Grid g) {
+                calls[0]++;
+            }
+        });
+        grid.addObserver(new Observer() {
+            public void update(Observable o, Object arg) {
+                calls[0]++;
+            }
+        });
+        pool.release(grid);
+        grid = pool.acquire(9, 9, 10, 0, true);
+        grid.uncoverAt(4, 4);
+        grid.placeFlagAt(0, 0);
+        assertEquals(0, calls[0]);
+        assertEquals(0, grid.countObservers());
+    }
+    
+    @Test
+    public final void testIdleGridsAreBounded() {
+        GridPool pool = new GridPool(2);
+        List<Grid> grids = new ArrayList<>();
+        for(int i = 0; i < 5; i++) grids.add(pool.acquire(8, 8, 10, i, true));
+        for(Grid grid : grids) pool.release(grid);
+        assertEquals(2, pool.getIdleCount());
+        pool.acquire(8, 8, 10, 0, true);
+        pool.acquire(8, 8, 10, 0, true);
+        pool.acquire(8, 8, 10, 0, true);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(6, pool.getCreatedCount());
+    }
+}
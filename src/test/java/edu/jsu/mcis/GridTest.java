@@ -39,6 +39,29 @@ public class GridTest {
         public void clearMessage() {message = ""; }
     }
     
+    private class MockChangeListener implements CellChangeListener {
+        private int batches;
+        private int resets;
+        private List<String> messages = new ArrayList<String>();
+        public void cellsChanged(Grid grid, CellChanges changes) {
+            batches++;
+            for(int i = 0; i < changes.size(); i++) {
+                messages.add(changes.getMessage(i));
+            }
+        }
+        public void gridReset(Grid grid) {
+            resets++;
+        }
+    }
+    
+    private class MockGridListener implements GridListener {
+        private int reveals, mines, flags, unflags, hintTotal;
+        public void onReveal(int row, int col, int hint) { reveals++; hintTotal += hint; }
+        public void onMine(int row, int col) { mines++; }
+        public void onFlag(int row, int col) { flags++; }
+        public void onUnflag(int row, int col) { unflags++; }
+    }
+    
     private Grid grid1;
     private Grid grid2;
     private Grid gridMocked;
@@ -64,16 +87,9 @@ public class GridTest {
         //  8  01222*1011
         //  9  01*111101*
          
-        int[] randomValues = {5, 7, 
-                              4, 2, 
-                              7, 3, 
-                              1, 6, 
-                              8, 5,
-                              9, 2,
-                              6, 1,
-                              2, 4,
-                              0, 5,
-                              9, 9}; 
+        // Mines are drawn as location indices (row * 10 + col), one
+        // draw per mine (see Grid.placeMines).
+        int[] randomValues = {5, 16, 24, 42, 57, 61, 73, 85, 92, 99}; 
         gridMocked = new Grid(10, 10, 10, new MockRandom(randomValues));
         observer = new MockObserver();
         gridMocked.addObserver(observer);
@@ -209,6 +225,23 @@ public class GridTest {
         assertEquals("", observer.getMessage());        
     }
     
+    @Test
+    public final void testLocationsAreViewsOfTheGrid() {
+        Location loc = gridMocked.getLocation(3, 4);
+        assertFalse(gridMocked.isFlagAt(3, 4));
+        loc.setType(Location.Type.FLAGGED);
+        assertTrue(gridMocked.isFlagAt(3, 4));
+        assertEquals(Location.Type.FLAGGED, gridMocked.getLocation(3, 4).getType());
+        assertEquals(1, loc.getHint());
+        assertTrue(gridMocked.getLocation(9, 9).hasMine());
+        assertEquals(Location.Type.COVERED, gridMocked.getLocation(3, 5).getType());
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetLocationRejectsIllegalIndex() {
+        gridMocked.getLocation(0, 10);
+    }
+    
     private List<Point> messageToPoints(String message) {
         List<Point> list = new ArrayList<Point>();
         String[] msg = message.split(" ");
@@ -256,17 +289,337 @@ public class GridTest {
         assertEquals(Location.Type.UNCOVERED, gridMocked.getLocation(5, 7).getType());
         assertEquals("5:7:mine", observer.getMessage());
     }
+    
+    @Test
+    public final void testCascadeIsDeliveredAsOneBatch() {
+        MockChangeListener listener = new MockChangeListener();
+        gridMocked.addChangeListener(listener);
+        gridMocked.uncoverAt(1, 1);
+        assertEquals(1, listener.batches);
+        assertEquals(22, listener.messages.size());
+        assertTrue(listener.messages.contains("1:1:0"));
+        assertTrue(listener.messages.contains("5:1:2"));
+        assertEquals(new HashSet<String>(listener.messages), 
+                     new HashSet<String>(Arrays.asList(observer.getMessage().split(" "))));
+        
+        gridMocked.placeFlagAt(5, 7);
+        gridMocked.uncoverAt(5, 7);
+        gridMocked.removeFlagAt(5, 7);
+        gridMocked.uncoverAt(9, 9);
+        assertEquals(4, listener.batches);
+        assertEquals("5:7:flag", listener.messages.get(22));
+        assertEquals("5:7:unflag", listener.messages.get(23));
+        assertEquals("9:9:mine", listener.messages.get(24));
+        
+        gridMocked.reset();
+        assertEquals(1, listener.resets);
+        assertEquals(4, listener.batches);
+        
+        gridMocked.removeChangeListener(listener);
+        gridMocked.placeFlagAt(0, 9);
+        gridMocked.reset(7);
+        assertEquals(4, listener.batches);
+        assertEquals(1, listener.resets);
+    }
+    
+    @Test
+    public final void testChordUncoversNeighborsInOneBatch() {
+        gridMocked.placeFlagAt(0, 5);
+        gridMocked.placeFlagAt(1, 6);
+        gridMocked.placeFlagAt(2, 4);
+        gridMocked.uncoverAt(1, 5);
+        MockChangeListener listener = new MockChangeListener();
+        gridMocked.addChangeListener(listener);
+        gridMocked.chordAt(1, 5);
+        assertEquals(1, listener.batches);
+        assertEquals(new HashSet<String>(Arrays.asList("0:4:1", "0:6:2", "1:4:2", "2:5:2", "2:6:1")), 
+                     new HashSet<String>(listener.messages));
+        assertEquals(Grid.Result.NONE, gridMocked.getResult());
+        gridMocked.chordAt(1, 5);
+        assertEquals(1, listener.batches);
+    }
+    
+    @Test
+    public final void testChordCascadesFromZeroHints() {
+        gridMocked.placeFlagAt(2, 4);
+        gridMocked.uncoverAt(3, 5);
+        MockChangeListener listener = new MockChangeListener();
+        gridMocked.addChangeListener(listener);
+        gridMocked.chordAt(3, 5);
+        assertEquals(1, listener.batches);
+        assertTrue(listener.messages.contains("3:6:0"));
+        assertTrue(listener.messages.contains("3:9:0"));
+        assertTrue(listener.messages.size() > 8);
+    }
+    
+    @Test
+    public final void testChordWithWrongFlagLoses() {
+        gridMocked.placeFlagAt(0, 5);
+        gridMocked.placeFlagAt(1, 6);
+        gridMocked.placeFlagAt(2, 5);
+        gridMocked.uncoverAt(1, 5);
+        gridMocked.chordAt(1, 5);
+        assertEquals(Location.Type.UNCOVERED, gridMocked.getLocation(2, 4).getType());
+        assertEquals(Grid.Result.LOSE, gridMocked.getResult());
+    }
+    
+    @Test
+    public final void testChordNeedsMatchingFlags() {
+        gridMocked.placeFlagAt(0, 5);
+        gridMocked.uncoverAt(1, 5);
+        gridMocked.chordAt(1, 5);
+        gridMocked.chordAt(0, 0);
+        gridMocked.chordAt(-1, 3);
+        assertEquals(1, gridMocked.getUncoveredCount());
+        assertEquals(Location.Type.COVERED, gridMocked.getLocation(0, 4).getType());
+    }
+    
+    @Test
+    public final void testGridListenerReceivesTypedEvents() {
+        MockGridListener listener = new MockGridListener();
+        gridMocked.addGridListener(listener);
+        gridMocked.uncoverAt(1, 1);
+        assertEquals(22, listener.reveals);
+        // Hints of the 22 locations uncovered from (1, 1).
+        assertEquals(13, listener.hintTotal);
+        gridMocked.placeFlagAt(9, 9);
+        gridMocked.removeFlagAt(9, 9);
+        gridMocked.uncoverAt(9, 9);
+        assertEquals(1, listener.flags);
+        assertEquals(1, listener.unflags);
+        assertEquals(1, listener.mines);
+        assertEquals("9:9:mine", observer.getMessage().substring(observer.getMessage().lastIndexOf(' ') + 1));
+        
+        gridMocked.removeGridListener(listener);
+        gridMocked.placeFlagAt(0, 9);
+        assertEquals(1, listener.flags);
+    }
+    
+    @Test
+    public final void testResultTracksUncoveredLocations() {
+        gridMocked.setDebug(true);
+        assertEquals(Grid.Result.NONE, gridMocked.getResult());
+        gridMocked.placeFlagAt(0, 5);
+        gridMocked.placeFlagAt(0, 6);
+        assertEquals(2, gridMocked.getFlagCount());
+        gridMocked.removeFlagAt(0, 6);
+        assertEquals(1, gridMocked.getFlagCount());
+        for(int row = 0; row < gridMocked.getHeight(); row++) {
+            for(int col = 0; col < gridMocked.getWidth(); col++) {
+                Location loc = gridMocked.getLocation(row, col);
+                if(!loc.hasMine() && loc.getType() == Location.Type.COVERED) {
+                    assertEquals(Grid.Result.NONE, gridMocked.getResult());
+                    gridMocked.uncoverAt(row, col);
+                }
+            }
+        }
+        assertEquals(Grid.Result.WIN, gridMocked.getResult());
+        gridMocked.uncoverAt(9, 9);
+        assertEquals(Grid.Result.LOSE, gridMocked.getResult());
+        
+        // Changes made through a Location view are counted too.
+        gridMocked.getLocation(9, 9).setMine(false);
+        assertEquals(Grid.Result.NONE, gridMocked.getResult());
+        gridMocked.getLocation(0, 5).reset();
+        assertEquals(0, gridMocked.getFlagCount());
+        gridMocked.reset();
+        assertEquals(Grid.Result.NONE, gridMocked.getResult());
+    }
+    
+    @Test
+    public final void testMinePlacementAtFullDensity() {
+        Grid full = new Grid(10, 10, 100);
+        Grid dense = new Grid(100, 100, 9990);
+        int mineCount = 0;
+        for(int row = 0; row < dense.getHeight(); row++) {
+            for(int col = 0; col < dense.getWidth(); col++) {
+                assertTrue(full.getLocation(row % 10, col % 10).hasMine());
+                if(dense.getLocation(row, col).hasMine()) {
+                    mineCount++;
+                }
+            }
+        }
+        assertEquals(9990, mineCount);
+        assertEquals(Grid.Result.WIN, full.getResult());
+    }
+    
+    @Test
+    public final void testSeededPlacementIsReproducible() {
+        assertEquals(new Grid(30, 16, 99, new Random(7)).toString(), 
+                     new Grid(30, 16, 99, new Random(7)).toString());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public final void testTooManyMinesAreRejected() {
+        new Grid(10, 10, 101);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public final void testEmptyGridIsRejected() {
+        new Grid(0, 10, 0);
+    }
+    
+    private void assertHintsMatchMines(Grid grid) {
+        for(int row = 0; row < grid.getHeight(); row++) {
+            for(int col = 0; col < grid.getWidth(); col++) {
+                int hint = 0;
+                for(int i = row - 1; i <= row + 1; i++) {
+                    for(int j = col - 1; j <= col + 1; j++) {
+                        if((i != row || j != col) && i >= 0 && j >= 0 && i < grid.getHeight() && j < grid.getWidth() 
+                           && grid.getLocation(i, j).hasMine()) {
+                            hint++;
+                        }
+                    }
+                }
+                assertEquals(hint, grid.getLocation(row, col).getHint());
+            }
+        }
+    }
+    
+    @Test
+    public final void testHintsOnDenseGrid() {
+        assertHintsMatchMines(new Grid(37, 23, 700, new Random(3)));
+    }
+    
+    @Test
+    public final void testParallelHintsOnLargeGrid() {
+        Grid big = new Grid(1031, 1021, 150000, new Random(11));
+        assertTrue(big.getWidth() * big.getHeight() >= Grid.PARALLEL_CELLS);
+        assertHintsMatchMines(big);
+    }
+    
+    @Test
+    public final void testSafeFirstClickOnLargeGrid() {
+        Grid big = new Grid(1100, 1000, 200000, new Random(4), true);
+        big.uncoverAt(500, 600);
+        assertEquals(200000, countMines(big));
+        for(int i = 499; i <= 501; i++) {
+            for(int j = 599; j <= 601; j++) {
+                assertFalse(big.getLocation(i, j).hasMine());
+            }
+        }
+        assertHintsMatchMines(big);
+        Grid again = new Grid(1100, 1000, 200000, new Random(4), true);
+        again.uncoverAt(500, 600);
+        assertEquals(big.toString(), again.toString());
+    }
+    
+    @Test
+    public final void testSeededGridIsReproducible() {
+        Grid grid = new Grid(30, 16, 99, 2024L);
+        assertTrue(grid.hasSeed());
+        assertEquals(2024, grid.getSeed());
+        assertEquals(99, countMines(grid));
+        assertEquals(grid.toString(), new Grid(30, 16, 99, 2024L).toString());
+        assertFalse(grid.toString().equals(new Grid(30, 16, 99, 2025L).toString()));
+        
+        grid.reset();
+        assertEquals(SplitMix.derive(2024, 0), grid.getSeed());
+        Grid rebuilt = new Grid(30, 16, 99, grid.getSeed());
+        assertEquals(grid.toString(), rebuilt.toString());
+        grid.reset();
+        rebuilt.reset();
+        assertEquals(grid.toString(), rebuilt.toString());
+        
+        grid.reset(2024);
+        assertEquals(new Grid(30, 16, 99, 2024L).toString(), grid.toString());
+    }
+    
+    @Test
+    public final void testSeedOfRandomGrid() {
+        Grid grid = new Grid(9, 9, 10, new Random(1));
+        assertFalse(grid.hasSeed());
+        try {
+            grid.getSeed();
+            fail("a grid made with a Random has no seed");
+        }
+        catch(IllegalStateException e) {}
+        grid.reset(8);
+        assertTrue(grid.hasSeed());
+        assertEquals(new Grid(9, 9, 10, 8L).toString(), grid.toString());
+    }
+    
+    @Test
+    public final void testSeededLargeGridIsReproducible() {
+        Grid big = new Grid(1100, 1000, 150000, 99L, true);
+        big.uncoverAt(10, 10);
+        Grid again = new Grid(1100, 1000, 150000, big.getSeed(), true);
+        again.uncoverAt(10, 10);
+        assertEquals(150000, countMines(big));
+        assertEquals(big.toString(), again.toString());
+    }
+    
+    private int countMines(Grid grid) {
+        int mineCount = 0;
+        for(int row = 0; row < grid.getHeight(); row++) {
+            for(int col = 0; col < grid.getWidth(); col++) {
+                if(grid.getLocation(row, col).hasMine()) {
+                    mineCount++;
+                }
+            }
+        }
+        return mineCount;
+    }
+    
+    @Test
+    public final void testSafeFirstClick() {
+        for(int seed = 0; seed < 50; seed++) {
+            Grid lazy = new Grid(9, 9, 60, new Random(seed), true);
+            assertFalse(lazy.isGenerated());
+            assertEquals(0, countMines(lazy));
+            lazy.uncoverAt(4, 0);
+            assertTrue(lazy.isGenerated());
+            assertEquals(60, countMines(lazy));
+            for(int row = 3; row <= 5; row++) {
+                for(int col = 0; col <= 1; col++) {
+                    assertFalse(lazy.getLocation(row, col).hasMine());
+                }
+            }
+            assertTrue(lazy.getResult() != Grid.Result.LOSE);
+            assertHintsMatchMines(lazy);
+            lazy.reset();
+            assertFalse(lazy.isGenerated());
+            assertEquals(0, countMines(lazy));
+        }
+    }
+    
+    @Test
+    public final void testSafeFirstClickWithoutRoomForNeighbors() {
+        Grid lazy = new Grid(3, 3, 8, new Random(5), true);
+        lazy.uncoverAt(1, 1);
+        assertEquals(8, countMines(lazy));
+        assertEquals(Location.Type.UNCOVERED, lazy.getLocation(1, 1).getType());
+        assertEquals(8, lazy.getLocation(1, 1).getHint());
+        assertEquals(Grid.Result.WIN, lazy.getResult());
+    }
+    
+    @Test
+    public final void testLargeCascadeLatency() {
+        // 4096 x 4096 with 1% density opens nearly the whole board
+        // from a single click, which used to overflow the stack.
+        Grid big = new Grid(4096, 4096, 4096 * 4096 / 100, new Random(42));
+        int row = 0;
+        int col = 0;
+        while(big.getLocation(row, col).hasMine() || big.getLocation(row, col).getHint() != 0) {
+            col++;
+            if(col == big.getWidth()) { col = 0; row++; }
+        }
+        long start = System.nanoTime();
+        big.uncoverAt(row, col);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        assertEquals(Location.Type.UNCOVERED, big.getLocation(row, col).getType());
+        assertTrue("uncoverAt took " + elapsedMillis + " ms", elapsedMillis < 2000);
+    }
+    
+    @Test
+    public final void testToStringOnLargeGrid() {
+        Grid big = new Grid(2000, 2000, 400000, new Random(3));
+        long start = System.nanoTime();
+        String s = big.toString();
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        assertEquals(2000 * 2001, s.length());
+        assertEquals(big.getLocation(0, 0).hasMine() ? '9' : (char)('0' + big.getLocation(0, 0).getHint()), s.charAt(0));
+        assertEquals('\n', s.charAt(2000));
+        assertTrue("toString took " + elapsedMillis + " ms", elapsedMillis < 2000);
+    }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
@@ -0,0 +1,117 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class InfiniteGridTest {
+    
+    private int countMines(InfiniteGrid grid, int row, int col) {
+        int mines = 0;
+        for(int i = row - 1; i <= row + 1; i++) {
+            for(int j = col - 1; j <= col + 1; j++) {
+                if((i != row || j != col) && grid.hasMine(i, j)) mines++;
+            }
+        }
+        return mines;
+    }
+    
+    @Test
+    public final void testHintsMatchMinesAcrossChunks() {
+        InfiniteGrid grid = new InfiniteGrid(11, 0.2);
+        for(int row = -70; row <= 70; row += 3) {
+            for(int col = -130; col <= 130; col += 7) {
+                Location loc = grid.getLocation(row, col);
+                assertEquals(grid.hasMine(row, col), loc.hasMine());
+                assertEquals(countMines(grid, row, col), loc.getHint());
+                assertEquals(Location.Type.COVERED, loc.getType());
+            }
+        }
+        assertEquals(new InfiniteGrid(11, 0.2).hasMine(-5, 17), grid.hasMine(-5, 17));
+    }
+    
+    @Test
+    public final void testCascadeCrossesChunkBorders() {
+        InfiniteGrid grid = new InfiniteGrid(3, 0.05, 8, 5000);
+        final int[] reveals = new int[3];
+        grid.addGridListener(new GridListener() {
+            public void onReveal(int row, int col, int hint) {
+                reveals[0]++;
+                if(row < 0) reveals[1]++;
+                else reveals[2]++;
+            }
+            public void onMine(int row, int col) {}
+            public void onFlag(int row, int col) {}
+            public void onUnflag(int row, int col) {}
+        });
+        int row = -1;
+        int col = -1;
+        while(countMines(grid, row, col) > 0 || grid.hasMine(row, col)) col--;
+        int uncovered = grid.uncoverAt(row, col);
+        assertEquals(uncovered, reveals[0]);
+        assertTrue(reveals[1] > 0);
+        assertTrue(reveals[2] > 0);
+        assertTrue(uncovered <= 5000);
+        assertEquals(Grid.Result.NONE, grid.getResult());
+        assertTrue(grid.getCachedChunks() <= 8);
+        assertEquals(Location.Type.UNCOVERED, grid.getLocation(row, col).getType());
+        assertEquals(Location.Type.UNCOVERED, grid.getLocation(row, col - 1).getType());
+        assertEquals(Location.Type.UNCOVERED, grid.getLocation(row + 1, col + 1).getType());
+    }
+    
+    @Test
+    public final void testEvictedChunksKeepTheirState() {
+        InfiniteGrid grid = new InfiniteGrid(5, 0.2, 4, 1000);
+        for(int k = 0; k < 20; k++) {
+            grid.placeFlagAt(k * 1000, -k * 1000);
+        }
+        assertTrue(grid.getCachedChunks() <= 4);
+        assertTrue(grid.getStoredChunks() >= 16);
+        for(int k = 0; k < 20; k++) {
+            assertTrue(grid.isFlagAt(k * 1000, -k * 1000));
+            assertFalse(grid.isFlagAt(k * 1000 + 1, -k * 1000));
+        }
+        grid.removeFlagAt(0, 0);
+        for(int k = 1; k < 20; k++) {
+            grid.getLocation(k * 1000, -k * 1000);
+        }
+        assertFalse(grid.isFlagAt(0, 0));
+    }
+    
+    @Test
+    public final void testActiveChunkIsNotEvicted() {
+        InfiniteGrid grid = new InfiniteGrid(5, 0.2, 2, 1000);
+        grid.placeFlagAt(0, 0);
+        for(int k = 1; k <= 30; k++) {
+            for(int i = 0; i < 10; i++) {
+                grid.placeFlagAt(1, i);
+                grid.removeFlagAt(1, i);
+            }
+            grid.placeFlagAt(k * 1000, k * 1000);
+            int stored = grid.getStoredChunks();
+            assertTrue(grid.isFlagAt(0, 0));
+            assertEquals(stored, grid.getStoredChunks());
+        }
+        assertEquals(29, grid.getStoredChunks());
+    }
+    
+    @Test
+    public final void testCascadeStopsAtLimit() {
+        InfiniteGrid grid = new InfiniteGrid(1, 0, 16, 10000);
+        assertEquals(10000, grid.uncoverAt(0, 0));
+        assertTrue(grid.getCachedChunks() <= 16);
+        assertEquals(0, grid.uncoverAt(0, 0));
+        assertEquals(10000, grid.uncoverAt(100000, -100000));
+    }
+    
+    @Test
+    public final void testUncoveringMineLoses() {
+        InfiniteGrid grid = new InfiniteGrid(9, 0.3);
+        int col = 0;
+        while(!grid.hasMine(-100, col)) col++;
+        grid.placeFlagAt(-100, col);
+        assertEquals(0, grid.uncoverAt(-100, col));
+        grid.removeFlagAt(-100, col);
+        assertEquals(1, grid.uncoverAt(-100, col));
+        assertEquals(Grid.Result.LOSE, grid.getResult());
+    }
+}
@@ -0,0 +1,102 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.*;
+import javax.management.*;
+
+public class MetricsTest {
+    
+    @Test
+    public final void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for(int i = 1; i <= 10; i++) histogram.record(i);
+        assertEquals(10, histogram.getCount());
+        assertEquals(5.5, histogram.getMean(), 1e-9);
+        assertEquals(5, histogram.getP50());
+        assertEquals(9, histogram.getP90());
+        assertEquals(10, histogram.getMax());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getP99());
+    }
+    
+    @Test
+    public final void testPercentilesAreWithinOneBucket() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        Random random = new Random(3);
+        long[] values = new long[100000];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = (long)Math.exp(random.nextDouble() * 30);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for(double percentile : new double[] {50, 90, 99, 99.9}) {
+            long exact = values[(int)Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + reported + " vs " + exact, reported >= exact);
+            assertTrue(percentile + ": " + reported + " vs " + exact, reported <= exact + exact / 16 + 1);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+    
+    @Test
+    public final void testThreadsRecordIntoOneHistogram() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram("test");
+        Thread[] threads = new Thread[8];
+        for(int t = 0; t < threads.length; t++) {
+            final int value = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for(int i = 0; i < 10000; i++) histogram.record(value);
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads) thread.join();
+        assertEquals(80000, histogram.getCount());
+        assertEquals(3, histogram.getP50());
+        assertEquals(7, histogram.getP99());
+        histogram.reset();
+        assertEquals(0, histogram.getP99());
+    }
+    
+    @Test
+    public final void testBucketsCoverEveryValue() {
+        long[] values = {0, 15, 16, 17, 31, 32, 1000, Integer.MAX_VALUE, Long.MAX_VALUE};
+        for(long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value + "", LatencyHistogram.highestValueIn(bucket) >= value);
+            if(bucket > 0) assertTrue(value + "", LatencyHistogram.highestValueIn(bucket - 1) < value);
+        }
+    }
+    
+    @Test
+    public final void testMetricsAreRegisteredAndDumped() throws Exception {
+        LatencyHistogram histogram = Metrics.histogram(Metrics.sized("test.nanos", 30, 16));
+        assertSame(histogram, Metrics.histogram("test.nanos.30x16"));
+        histogram.record(1234);
+        Metrics.counter("test.count").add(7);
+        
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.DOMAIN + ":type=Histogram,name=" + ObjectName.quote("test.nanos.30x16"));
+        assertTrue(server.isRegistered(name));
+        assertEquals(histogram.getCount(), server.getAttribute(name, "Count"));
+        assertEquals(Metrics.ENABLED, server.isRegistered(new ObjectName(Metrics.DOMAIN + ":type=Metrics")));
+        
+        Path file = Files.createTempFile("metrics", ".txt");
+        try {
+            Metrics.dump(file);
+            String dump = new String(Files.readAllBytes(file), "UTF-8");
+            assertTrue(dump, dump.contains("test.count 7"));
+            assertTrue(dump, dump.contains("test.nanos.30x16 count=1"));
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+}
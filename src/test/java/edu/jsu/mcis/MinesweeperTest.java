@@ -4,6 +4,9 @@ import org.junit.*;
 import static org.junit.Assert.*;
 
 import java.awt.*;
+import java.awt.image.*;
+import java.io.*;
+import java.util.Random;
 import javax.swing.*;
 
 public class MinesweeperTest {
@@ -59,17 +62,188 @@ public class MinesweeperTest {
         }
     }
     
+    @Test
+    public final void testLargeBoardIsOneComponent() {
+        long start = System.nanoTime();
+        Minesweeper m = new Minesweeper(1000, 1000, 150000);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        assertTrue("building the board took " + elapsedMillis + " ms", elapsedMillis < 2000);
+        assertNull(getComponentByName(m, "cell:0:0"));
+        BoardView view = (BoardView)getComponentByName(m, "board");
+        assertNotNull(view);
+        assertEquals(new Dimension(1000 * view.getTileSize(), 1000 * view.getTileSize()), view.getPreferredSize());
+        assertNotNull(getComponentByName(m, "flags"));
+    }
+    
+    @Test
+    public final void testBoardViewMapsPointsToCells() {
+        Grid grid = new Grid(300, 200, 5000, new Random(1));
+        Image image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        BoardView view = new BoardView(grid, 10, image, image);
+        assertEquals(new Point(0, 0), view.cellAt(new Point(0, 0)));
+        assertEquals(new Point(3, 12), view.cellAt(new Point(129, 35)));
+        assertEquals(new Point(199, 299), view.cellAt(new Point(2999, 1999)));
+        assertEquals(new Point(-1, -1), view.cellAt(new Point(3000, 5)));
+        assertEquals(new Point(-1, -1), view.cellAt(new Point(-1, 5)));
+        view.setTileSize(1000);
+        assertEquals(BoardView.MAX_TILE_SIZE, view.getTileSize());
+        assertEquals(new Rectangle(2 * 64, 64, 2 * 64, 3 * 64), view.cellBounds(1, 2, 3, 3));
+    }
+    
+    @Test
+    public final void testBoardViewPaintsTilesFromGrid() {
+        Grid grid = new Grid(40, 30, 100, new Random(2));
+        Image image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        BoardView view = new BoardView(grid, 8, image, image);
+        view.setSize(view.getPreferredSize());
+        BufferedImage covered = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        view.paint(covered.getGraphics());
+        int row = 0;
+        int col = 0;
+        while(grid.getLocation(row, col).hasMine()) col++;
+        grid.uncoverAt(row, col);
+        BufferedImage uncovered = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        view.paint(uncovered.getGraphics());
+        assertTrue(covered.getRGB(col * 8 + 4, row * 8 + 4) != uncovered.getRGB(col * 8 + 4, row * 8 + 4));
+        assertEquals(covered.getRGB(319, 239) == uncovered.getRGB(319, 239), 
+                     grid.getLocation(29, 39).getType() == Location.Type.COVERED);
+    }
+    
+    @Test
+    public final void testChangesFromOtherThreadsReachTheLabels() throws Exception {
+        final Minesweeper m = new Minesweeper(12345L, 8, 8, 10);
+        final Grid grid = m.getGrid();
+        Thread bot = new Thread(new Runnable() {
+            public void run() {
+                grid.uncoverAt(4, 4);
+                for(int i = 0; i < 10000; i++) {
+                    grid.placeFlagAt(0, 0);
+                    grid.removeFlagAt(0, 0);
+                }
+                grid.placeFlagAt(0, 0);
+            }
+        });
+        bot.start();
+        bot.join();
+        Thread.sleep(5 * Minesweeper.FRAME_MILLIS);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {}
+        });
+        for(int i = 0; i < 8; i++) {
+            for(int j = 0; j < 8; j++) {
+                JLabel cell = (JLabel)getComponentByName(m, "cell:" + i + ":" + j);
+                Location loc = grid.getLocation(i, j);
+                if(loc.getType() == Location.Type.UNCOVERED) {
+                    assertEquals(String.valueOf(loc.getHint()), cell.getText());
+                }
+                else if(loc.getType() == Location.Type.FLAGGED) {
+                    assertNotNull(cell.getIcon());
+                    assertEquals("flagged", cell.getToolTipText());
+                }
+                else {
+                    assertNull(cell.getIcon());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public final void testUnflaggedAndUncoveredLabelLosesItsFlag() throws Exception {
+        final Minesweeper m = new Minesweeper(12345L, 8, 8, 10);
+        final Grid grid = m.getGrid();
+        grid.uncoverAt(7, 7);
+        int row = 0;
+        int col = 0;
+        while(grid.getLocation(row, col).hasMine() || grid.getLocation(row, col).getType() != Location.Type.COVERED) {
+            row = (row + col / 7) % 8;
+            col = (col + 1) % 8;
+        }
+        Runnable flush = new Runnable() {
+            public void run() {
+                m.flushChanges();
+            }
+        };
+        JLabel cell = (JLabel)getComponentByName(m, "cell:" + row + ":" + col);
+        grid.placeFlagAt(row, col);
+        SwingUtilities.invokeAndWait(flush);
+        assertNotNull(cell.getIcon());
+        grid.removeFlagAt(row, col);
+        grid.uncoverAt(row, col);
+        SwingUtilities.invokeAndWait(flush);
+        assertNull(cell.getIcon());
+        assertEquals(String.valueOf(grid.getLocation(row, col).getHint()), cell.getText());
+    }
+    
+    @Test
+    public final void testNewGameReusesGridAndLabels() throws Exception {
+        final Minesweeper m = new Minesweeper(42, 8, 8, 10);
+        final Grid grid = m.getGrid();
+        final JLabel cell = (JLabel)getComponentByName(m, "cell:3:3");
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                grid.uncoverAt(3, 3);
+                assertFalse(cell.getText().isEmpty());
+                ((JButton)getComponentByName(m, "newGame")).doClick();
+            }
+        });
+        assertSame(grid, m.getGrid());
+        assertSame(cell, getComponentByName(m, "cell:3:3"));
+        assertEquals(0, grid.getUncoveredCount());
+        assertEquals("", cell.getText());
+        assertNull(cell.getIcon());
+        assertEquals("10", ((JLabel)getComponentByName(m, "flags")).getText());
+    }
+    
+    @Test
+    public final void testClosedJournalKeepsEveryMove() throws Exception {
+        final Minesweeper m = new Minesweeper(7L, 8, 8, 10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        m.startJournal(out);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                m.newGame();
+                m.newGame();
+            }
+        });
+        m.closeJournal();
+        assertNull(m.getJournal());
+        Replayer replayer = new Replayer(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(7L, replayer.getSeed());
+        assertEquals(2, replayer.getMoveCount());
+        assertEquals(MoveJournal.RESET, replayer.getAction(1));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public final void testJournalNeedsSeededGrid() throws Exception {
+        Minesweeper m = new Minesweeper(new Grid(8, 8, 10, new Random(7), true));
+        m.startJournal(new ByteArrayOutputStream());
+    }
+    
+    @Test
+    public final void testReplayedNewGameCoversTheLabels() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(out, new Grid(8, 8, 10, 99L, true));
+        journal.record(MoveJournal.UNCOVER, 3, 3);
+        journal.record(MoveJournal.FLAG, 0, 7);
+        journal.record(MoveJournal.RESET, -1, -1);
+        journal.record(MoveJournal.FLAG, 7, 0);
+        journal.close();
+        final Replayer replayer = new Replayer(new ByteArrayInputStream(out.toByteArray()));
+        final Grid grid = replayer.createGrid();
+        final Minesweeper m = new Minesweeper(grid);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                replayer.replay(grid);
+            }
+        });
+        assertEquals(0, grid.getUncoveredCount());
+        for(int i = 0; i < 8; i++) {
+            for(int j = 0; j < 8; j++) {
+                JLabel cell = (JLabel)getComponentByName(m, "cell:" + i + ":" + j);
+                assertEquals("", cell.getText());
+                assertEquals(i == 7 && j == 0, cell.getIcon() != null);
+            }
+        }
+        assertEquals("9", ((JLabel)getComponentByName(m, "flags")).getText());
+    }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
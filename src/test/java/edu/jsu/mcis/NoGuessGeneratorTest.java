@@ -0,0 +1,54 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class NoGuessGeneratorTest {
+    
+    @Test
+    public final void testGeneratedGridIsSolvedWithoutGuessing() {
+        GenerationResult result = new NoGuessGenerator(16, 16, 40).generate(7, 8, 8, 10000);
+        assertTrue(result.isNoGuess());
+        assertTrue(result.getAttempts() > result.getCandidate());
+        Grid grid = result.getGrid();
+        assertTrue(grid.isGenerated());
+        assertEquals(0, grid.getUncoveredCount());
+        Solver solver = new Solver(grid);
+        grid.uncoverAt(8, 8);
+        assertEquals(Grid.Result.WIN, solver.solve());
+    }
+    
+    @Test
+    public final void testSearchIsReproducibleAcrossPools() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool quad = new ForkJoinPool(4);
+        try {
+            GenerationResult a = new NoGuessGenerator(30, 16, 99, single).generate(3, 0, 0, 60000);
+            GenerationResult b = new NoGuessGenerator(30, 16, 99, quad).generate(3, 0, 0, 60000);
+            assertTrue(a.isNoGuess());
+            assertEquals(a.getCandidate(), b.getCandidate());
+            assertEquals(a.getGrid().toString(), b.getGrid().toString());
+        }
+        finally {
+            single.shutdown();
+            quad.shutdown();
+        }
+    }
+    
+    @Test
+    public final void testTimeoutFallsBackToRandomLayout() {
+        GenerationResult result = new NoGuessGenerator(30, 16, 99).generate(5, 3, 4, 0);
+        assertFalse(result.isNoGuess());
+        assertEquals(0, result.getCandidate());
+        Grid grid = result.getGrid();
+        assertTrue(grid.isGenerated());
+        assertFalse(grid.getLocation(3, 4).hasMine());
+        assertEquals(SplitMix.derive(5, 0), grid.getSeed());
+        Grid expected = new Grid(30, 16, 99, grid.getSeed(), true);
+        expected.uncoverAt(3, 4);
+        assertEquals(expected.toString(), grid.toString());
+    }
+}
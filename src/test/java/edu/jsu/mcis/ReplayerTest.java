@@ -0,0 +1,104 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+public class ReplayerTest {
+    
+    private static void assertSameState(Grid expected, Grid actual) {
+        assertEquals(expected.toString(), actual.toString());
+        for(int i = 0; i < expected.getHeight(); i++) {
+            for(int j = 0; j < expected.getWidth(); j++) {
+                assertEquals(expected.getLocation(i, j).getType(), actual.getLocation(i, j).getType());
+            }
+        }
+        assertEquals(expected.getResult(), actual.getResult());
+    }
+    
+    private static void playThreeGames(Grid grid, MoveJournal journal) throws IOException {
+        Random player = new Random(5);
+        for(int game = 0; game < 3; game++) {
+            while(grid.getResult() == Grid.Result.NONE) {
+                int row = player.nextInt(16);
+                int col = player.nextInt(16);
+                if(player.nextInt(4) == 0) {
+                    int action = grid.isFlagAt(row, col) ? MoveJournal.UNFLAG : MoveJournal.FLAG;
+                    journal.record(action, row, col);
+                    if(action == MoveJournal.FLAG) grid.placeFlagAt(row, col);
+                    else grid.removeFlagAt(row, col);
+                }
+                else if(!grid.isFlagAt(row, col)) {
+                    journal.record(MoveJournal.UNCOVER, row, col);
+                    grid.uncoverAt(row, col);
+                }
+            }
+            if(game < 2) {
+                journal.record(MoveJournal.RESET, -1, -1);
+                grid.reset();
+            }
+        }
+        journal.close();
+    }
+    
+    @Test
+    public final void testReplayRebuildsRecordedGame() throws IOException {
+        long seed = 77;
+        Grid grid = new Grid(16, 16, 40, new Random(seed), true);
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(log, grid, seed);
+        playThreeGames(grid, journal);
+        
+        Replayer replayer = new Replayer(new ByteArrayInputStream(log.toByteArray()));
+        assertEquals(16, replayer.getWidth());
+        assertEquals(40, replayer.getMines());
+        assertEquals(seed, replayer.getSeed());
+        assertEquals(journal.getMoveCount(), replayer.getMoveCount());
+        Grid replayed = replayer.createGrid();
+        assertEquals(grid.getResult(), replayer.replay(replayed));
+        assertSameState(grid, replayed);
+    }
+    
+    @Test
+    public final void testReplayRebuildsSeededGame() throws IOException {
+        Grid grid = new Grid(16, 16, 40, 77L, true);
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(log, grid);
+        playThreeGames(grid, journal);
+        
+        Replayer replayer = new Replayer(new ByteArrayInputStream(log.toByteArray()));
+        assertTrue(replayer.isSeeded());
+        assertEquals(77, replayer.getSeed());
+        Grid replayed = replayer.createGrid();
+        assertEquals(grid.getResult(), replayer.replay(replayed));
+        assertSameState(grid, replayed);
+        assertEquals(grid.getSeed(), replayed.getSeed());
+    }
+    
+    @Test
+    public final void testReplayIsFast() throws IOException {
+        Grid grid = new Grid(64, 64, 400, new Random(1));
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(log, grid, 1);
+        for(int move = 0; move < 500 * 4096; move++) {
+            int index = move % 4096;
+            journal.record((move / 4096) % 2 == 0 ? MoveJournal.FLAG : MoveJournal.UNFLAG, index / 64, index % 64);
+        }
+        journal.close();
+        assertEquals(500 * 4096 * 13 + 28, log.size());
+        Replayer replayer = new Replayer(new ByteArrayInputStream(log.toByteArray()));
+        Grid replayed = replayer.createGrid();
+        long start = System.nanoTime();
+        replayer.replay(replayed);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        assertEquals(0, replayed.getFlagCount());
+        assertTrue("2,048,000 moves took " + elapsedMillis + " ms", elapsedMillis < 2000);
+    }
+    
+    @Test(expected = IOException.class)
+    public final void testRejectsOtherData() throws IOException {
+        new Replayer(new ByteArrayInputStream("definitely not a journal".getBytes("UTF-8")));
+    }
+}
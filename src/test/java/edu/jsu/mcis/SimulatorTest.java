@@ -0,0 +1,48 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class SimulatorTest {
+    
+    @Test
+    public final void testAllGamesArePlayed() {
+        Simulator simulator = new Simulator(8, 8, 10, new RandomStrategy());
+        SimulationResult result = simulator.run(1, 500);
+        assertEquals(500, result.getGames());
+        assertEquals(0, result.getStalls());
+        assertTrue(result.getMoves() >= 500);
+        assertTrue(result.getWinRate() >= 0 && result.getWinRate() <= 1);
+        assertTrue(result.getGamesPerSecond() > 0);
+    }
+    
+    @Test
+    public final void testRunsAreReproducibleAcrossPools() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool quad = new ForkJoinPool(4);
+        try {
+            SimulationResult a = new Simulator(9, 9, 10, new RandomStrategy(), single).run(42, 300);
+            SimulationResult b = new Simulator(9, 9, 10, new RandomStrategy(), quad).run(42, 300);
+            assertEquals(a.getWins(), b.getWins());
+            assertEquals(a.getLosses(), b.getLosses());
+            assertEquals(a.getMoves(), b.getMoves());
+        }
+        finally {
+            single.shutdown();
+            quad.shutdown();
+        }
+    }
+    
+    @Test
+    public final void testStrategyWithoutMovesStalls() {
+        MoveStrategy idle = new MoveStrategy() {
+            public boolean move(Grid grid, Random random) { return false; }
+        };
+        SimulationResult result = new Simulator(5, 5, 3, idle).run(0, 20);
+        assertEquals(20, result.getStalls());
+        assertEquals(0, result.getMoves());
+    }
+}
@@ -0,0 +1,124 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+public class SolverTest {
+    private Grid gridMocked;
+    private Solver solver;
+    
+    @Before
+    public final void setUp() {
+        // The same 10x10 grid as in GridTest:
+        //     0123456789
+        //  0  00001*2100
+        //  1  000123*100
+        //  2  0001*21100
+        //  3  0112110000
+        //  4  01*1001110
+        //  5  1221001*10
+        //  6  1*21101110
+        //  7  112*211000
+        //  8  01222*1011
+        //  9  01*111101*
+        gridMocked = new Grid(10, 10, 10, new Random() {
+            private int[] values = {5, 16, 24, 42, 57, 61, 73, 85, 92, 99};
+            private int current = 0;
+            public int nextInt(int n) { return values[current++ % values.length] % n; }
+        });
+        solver = new Solver(gridMocked);
+    }
+    
+    @Test
+    public final void testSinglePointDeductions() {
+        gridMocked.uncoverAt(1, 1);
+        solver.deduce();
+        // (4, 1) is a 1 whose only covered neighbor is (4, 2).
+        assertTrue(solver.isKnownMine(4, 2));
+        // (2, 3) is a 1 whose only covered neighbor is (2, 4).
+        assertTrue(solver.isKnownMine(2, 4));
+        assertFalse(solver.isKnownMine(5, 7));
+        assertEquals(0.0, solver.getMineProbability(1, 1), 0);
+        assertEquals(1.0, solver.getMineProbability(4, 2), 0);
+    }
+    
+    @Test
+    public final void testSolveFinishesWithoutGuessing() {
+        gridMocked.uncoverAt(1, 1);
+        gridMocked.uncoverAt(3, 8);
+        assertEquals(Grid.Result.WIN, solver.solve());
+    }
+    
+    @Test
+    public final void testDeductionsAreAlwaysCorrect() {
+        for(int seed = 0; seed < 200; seed++) {
+            Grid grid = new Grid(30, 16, 99, new Random(seed), true);
+            Solver s = new Solver(grid);
+            grid.uncoverAt(8, 15);
+            assertTrue(s.solve() != Grid.Result.LOSE);
+            for(int row = 0; row < grid.getHeight(); row++) {
+                for(int col = 0; col < grid.getWidth(); col++) {
+                    boolean mine = grid.getLocation(row, col).hasMine();
+                    assertFalse(s.isKnownSafe(row, col) && mine);
+                    assertFalse(s.isKnownMine(row, col) && !mine);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public final void testSolverFollowsReset() {
+        gridMocked.uncoverAt(1, 1);
+        solver.deduce();
+        assertTrue(solver.isKnownMine(4, 2));
+        gridMocked.reset();
+        solver.sync();
+        assertFalse(solver.isKnownMine(4, 2));
+        assertEquals(-1, solver.nextSafe());
+        assertEquals(0.1, solver.getMineProbability(0, 0), 1e-9);
+    }
+    
+    @Test
+    public final void testSolverForgetsFlagsOnReset() {
+        for(int row = 0; row < 10; row++) {
+            for(int col = 0; col < 10; col++) {
+                if(!gridMocked.getLocation(row, col).hasMine()) gridMocked.placeFlagAt(row, col);
+            }
+        }
+        gridMocked.reset();
+        gridMocked.uncoverAt(1, 1);
+        assertTrue(solver.solve() != Grid.Result.LOSE);
+        for(int row = 0; row < 10; row++) {
+            for(int col = 0; col < 10; col++) {
+                boolean mine = gridMocked.getLocation(row, col).hasMine();
+                assertFalse(solver.isKnownSafe(row, col) && mine);
+                assertFalse(solver.isKnownMine(row, col) && !mine);
+            }
+        }
+    }
+    
+    @Test
+    public final void testExpertSolvesPerSecond() {
+        Grid grid = new Grid(30, 16, 99, new Random(1), true);
+        Solver s = new Solver(grid);
+        int solves = 2000;
+        long start = System.nanoTime();
+        for(int i = 0; i < solves; i++) {
+            grid.reset();
+            grid.uncoverAt(8, 15);
+            s.solve();
+        }
+        double perSecond = solves * 1e9 / (System.nanoTime() - start);
+        assertTrue("only " + (int)perSecond + " solves per second", perSecond > 1000);
+    }
+    
+    @Test
+    public final void testSolverStrategyBeatsRandom() {
+        SimulationResult solved = new Simulator(9, 9, 10, new SolverStrategy()).run(3, 1000);
+        SimulationResult random = new Simulator(9, 9, 10, new RandomStrategy()).run(3, 1000);
+        assertTrue(solved.getWinRate() > 0.5);
+        assertTrue(solved.getWinRate() > random.getWinRate());
+    }
+}
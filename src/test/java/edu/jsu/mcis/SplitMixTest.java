@@ -0,0 +1,50 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+public class SplitMixTest {
+    
+    @Test
+    public final void testMatchesSplittableRandom() {
+        SplitMix mix = new SplitMix(42);
+        SplittableRandom random = new SplittableRandom(42);
+        for(int i = 0; i < 1000; i++) {
+            assertEquals(random.nextLong(), mix.nextLong());
+        }
+        mix.setSeed(42);
+        assertEquals(new SplittableRandom(42).nextLong(), mix.nextLong());
+    }
+    
+    @Test
+    public final void testBoundedValuesAreInRangeAndUniform() {
+        SplitMix mix = new SplitMix(7);
+        int[] counts = new int[10];
+        for(int i = 0; i < 100000; i++) {
+            counts[mix.nextInt(10)]++;
+            int power = mix.nextInt(64);
+            assertTrue(power >= 0 && power < 64);
+            long big = mix.nextLong(3000000000L);
+            assertTrue(big >= 0 && big < 3000000000L);
+            double d = mix.nextDouble();
+            assertTrue(d >= 0 && d < 1);
+        }
+        for(int count : counts) {
+            assertEquals(10000, count, 500);
+        }
+    }
+    
+    @Test
+    public final void testDerivedSeedsDiffer() {
+        Set<Long> seeds = new HashSet<>();
+        for(long parent = 0; parent < 100; parent++) {
+            for(long index = 0; index < 100; index++) {
+                seeds.add(SplitMix.derive(parent, index));
+            }
+        }
+        assertEquals(10000, seeds.size());
+        assertEquals(SplitMix.derive(3, 4), SplitMix.derive(3, 4));
+    }
+}
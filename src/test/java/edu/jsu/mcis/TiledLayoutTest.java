@@ -0,0 +1,66 @@
+package edu.jsu.mcis;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class TiledLayoutTest {
+    
+    private static Board layout(int threads, int[] excluded) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Board board = new Board(500, 301);
+            TiledLayout.clear(pool, board);
+            TiledLayout.generate(pool, board, 30000, 77, excluded, excluded.length, 8);
+            return board;
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public final void testLayoutDoesNotDependOnThreads() {
+        int[] excluded = {500 * 100 + 9, 500 * 100 + 10, 500 * 101 + 9, 500 * 101 + 10};
+        byte[] one = layout(1, excluded).getCells();
+        assertArrayEquals(one, layout(2, excluded).getCells());
+        assertArrayEquals(one, layout(7, excluded).getCells());
+    }
+    
+    @Test
+    public final void testLayoutHasExactMinesAndHints() {
+        int[] excluded = {0, 1, 500, 501};
+        Board board = layout(4, excluded);
+        assertEquals(30000, board.recount());
+        for(int index : excluded) assertFalse(board.hasMine(index));
+        for(int row = 0; row < board.getHeight(); row++) {
+            for(int col = 0; col < board.getWidth(); col++) {
+                int hint = 0;
+                for(int i = Math.max(row - 1, 0); i <= Math.min(row + 1, board.getHeight() - 1); i++) {
+                    for(int j = Math.max(col - 1, 0); j <= Math.min(col + 1, board.getWidth() - 1); j++) {
+                        if((i != row || j != col) && board.hasMine(board.index(i, j))) hint++;
+                    }
+                }
+                assertEquals(hint, board.getHint(board.index(row, col)));
+            }
+        }
+    }
+    
+    @Test
+    public final void testHypergeometricStaysInRange() {
+        SplitMix random = new SplitMix(5);
+        long[][] cases = {{1000, 10, 500}, {1000, 995, 300}, {400000000L, 80000000L, 200000000L}, {100, 100, 7}, {100, 0, 50}};
+        for(long[] c : cases) {
+            double sum = 0;
+            for(int i = 0; i < 2000; i++) {
+                long hits = TiledLayout.hypergeometric(random, c[0], c[1], c[2]);
+                assertTrue(hits >= Math.max(0, c[1] - (c[0] - c[2])) && hits <= Math.min(c[1], c[2]));
+                sum += hits;
+            }
+            double mean = (double)c[1] * c[2] / c[0];
+            assertEquals(mean, sum / 2000, Math.max(0.5, mean * 0.01));
+        }
+    }
+}